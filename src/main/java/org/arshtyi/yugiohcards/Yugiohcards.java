@@ -1,21 +1,41 @@
 package org.arshtyi.yugiohcards;
 
+import java.util.Arrays;
+
 import org.arshtyi.yugiohcards.controller.config.Check;
 import org.arshtyi.yugiohcards.server.main.Main;
 
 /** Main application class for the Yu-Gi-Oh Cards project. */
 public class Yugiohcards {
+    /** Launch flag that keeps existing log files, see {@link #main(String[])}. */
+    private static final String FAST_START_FLAG = "--fast-start";
+
+    /**
+     * Line printed once the environment check passed, right before the selected stage runs. The
+     * startup benchmark times launches up to this line.
+     */
+    public static final String ENVIRONMENT_READY_MESSAGE = "Environment check passed!";
+
     /**
-     * The main entry point of the application.
+     * The main entry point of the application. If the first argument is {@code --fast-start}, old
+     * log files are kept instead of being deleted on launch, so that frequent short invocations
+     * append to one log. The flag changes behaviour only; it does not measurably shorten startup.
+     * The measured gains come from the AppCDS archive built by the {@code appcds} Maven profile and
+     * from C1-only compilation ({@code -XX:TieredStopAtLevel=1}), see the README.
      *
-     * @param args Command line arguments (not currently used).
+     * @param args Command line arguments, passed on to the server main class after the optional
+     *     {@code --fast-start} flag.
      */
     public static void main(String[] args) {
         System.out.println("Yu-Gi-Oh Cards Application Started!"); // Keep existing English message
-        if (!Check.checkEnvironment()) { // Updated class name
+        boolean fastStart = args.length > 0 && args[0].equals(FAST_START_FLAG);
+        if (fastStart) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (!Check.checkEnvironment(!fastStart)) { // Updated class name
             System.out.println("Environment check failed!");
         } else {
-            System.out.println("Environment check passed!");
+            System.out.println(ENVIRONMENT_READY_MESSAGE);
             Main.main(args);
         }
     }
@@ -87,6 +87,19 @@ public class Check {
      *     {@code false} otherwise.
      */
     public static boolean checkEnvironment() {
+        return checkEnvironment(true);
+    }
+
+    /**
+     * Performs the environment check sequence, optionally skipping the cleanup of old log files.
+     * Skipping the cleanup keeps short, frequent invocations (e.g. from cron) from listing and
+     * deleting the log directory on every launch; their logs are appended instead.
+     *
+     * @param cleanLogs Whether to delete the existing log files before continuing.
+     * @return {@code true} if the environment setup (directories) is valid or could be created,
+     *     {@code false} otherwise.
+     */
+    public static boolean checkEnvironment(boolean cleanLogs) {
         String logFilePath = Config.Path.FilePath.getMainLogFilePath();
         if (!checkDirectoryExists(Config.Path.FilePath.getLogDirectoryPath())) {
             Logger.log(
@@ -95,7 +108,7 @@ public class Check {
                     Check.class,
                     null);
             return false;
-        } else {
+        } else if (cleanLogs) {
             // Log directory exists or was successfully created.
             // Delete all files within the log directory as requested.
             Path logDirPath = Paths.get(Config.Path.FilePath.getLogDirectoryPath());
@@ -33,7 +33,8 @@ public class Config { // Renamed class from config to Config
     /**
      * Nested class for managing URL-related configurations and HTTP client setup. Provides base
      * URLs, user agent strings, and methods to create HTTP requests and clients for accessing the
-     * Yu-Gi-Oh! API. This class should not be instantiated.
+     * Yu-Gi-Oh! API. Kept apart from {@link Path} so that the Apache HttpClient classes are only
+     * loaded once a fetch is actually requested. This class should not be instantiated.
      *
      * @throws AssertionError if an attempt is made to instantiate this utility class.
      */
@@ -48,12 +49,16 @@ public class Config { // Renamed class from config to Config
             throw new AssertionError("Utility class should not be instantiated");
         }
 
-        private static final String BASE_URL = "https://db.ygoprodeck.com/api/v7/cardinfo.php";
+        private static final String BASE_URL =
+                System.getProperty(
+                        "yugiohcards.baseUrl", "https://db.ygoprodeck.com/api/v7/cardinfo.php");
         private static final String AGENT =
                 "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36 Edg/135.0.0.0";
 
         /**
-         * Returns the base URL for the Yu-Gi-Oh! ProDeck API card information endpoint.
+         * Returns the base URL for the Yu-Gi-Oh! ProDeck API card information endpoint. It can be
+         * overridden with the {@code yugiohcards.baseUrl} system property, e.g. to point a test
+         * primary at a local mock.
          *
          * @return The base API URL string.
          */
@@ -114,6 +119,135 @@ public class Config { // Renamed class from config to Config
         }
     }
 
+    /**
+     * Nested class for primary/replica replication settings. Defines the HTTP port served by the
+     * primary, how often the primary refreshes from the upstream API, and how often replicas poll
+     * the primary. This class should not be instantiated.
+     *
+     * @throws AssertionError if an attempt is made to instantiate this utility class.
+     */
+    public static class Replication {
+        private Replication() {
+            throw new AssertionError("Utility class should not be instantiated");
+        }
+
+        private static final int DEFAULT_PORT = 8470;
+        private static final long REFRESH_INTERVAL_SECONDS = 6 * 60 * 60;
+        private static final long POLL_INTERVAL_SECONDS = 2;
+        private static final long RETRY_INITIAL_SECONDS = 5;
+        private static final long RETRY_MAX_SECONDS = 5 * 60;
+        private static final String BIND_ADDRESS =
+                System.getProperty("yugiohcards.replication.bindAddress", "127.0.0.1");
+
+        /**
+         * Returns the port the primary serves snapshots on when none is given on the command line.
+         *
+         * @return The default replication port.
+         */
+        public static int getDefaultPort() {
+            return DEFAULT_PORT;
+        }
+
+        /**
+         * Returns the interval between two upstream refreshes of the primary.
+         *
+         * @return The refresh interval in seconds.
+         */
+        public static long getRefreshIntervalSeconds() {
+            return REFRESH_INTERVAL_SECONDS;
+        }
+
+        /**
+         * Returns the interval between two version checks of a replica.
+         *
+         * @return The poll interval in seconds.
+         */
+        public static long getPollIntervalSeconds() {
+            return POLL_INTERVAL_SECONDS;
+        }
+
+        /**
+         * Returns the delay before the primary retries a failed upstream refresh. The delay doubles
+         * after each consecutive failure, up to {@link #getRetryMaxSeconds()}.
+         *
+         * @return The initial retry delay in seconds.
+         */
+        public static long getRetryInitialSeconds() {
+            return RETRY_INITIAL_SECONDS;
+        }
+
+        /**
+         * Returns the longest delay between two retries of a failed upstream refresh.
+         *
+         * @return The maximum retry delay in seconds.
+         */
+        public static long getRetryMaxSeconds() {
+            return RETRY_MAX_SECONDS;
+        }
+
+        /**
+         * Returns the address the primary binds its snapshot endpoint to. The endpoint is not
+         * authenticated, so it defaults to loopback; the {@code
+         * yugiohcards.replication.bindAddress} system property can widen it, e.g. to {@code
+         * 0.0.0.0} for replicas on other hosts.
+         *
+         * @return The bind address.
+         */
+        public static String getBindAddress() {
+            return BIND_ADDRESS;
+        }
+    }
+
+    /**
+     * Nested class for image processing settings. Defines the thumbnail widths and output formats
+     * produced from the card images. This class should not be instantiated.
+     *
+     * @throws AssertionError if an attempt is made to instantiate this utility class.
+     */
+    public static class Image {
+        private Image() {
+            throw new AssertionError("Utility class should not be instantiated");
+        }
+
+        private static final int[] THUMBNAIL_WIDTHS = {96, 168, 268};
+        private static final String[] THUMBNAIL_FORMATS =
+                System.getProperty("yugiohcards.thumbnailFormats", "png").trim().split("\\s*,\\s*");
+
+        /**
+         * Returns the widths, in pixels, of the thumbnail variants to produce. Heights follow the
+         * aspect ratio of the source image.
+         *
+         * @return A copy of the configured thumbnail widths.
+         */
+        public static int[] getThumbnailWidths() {
+            return THUMBNAIL_WIDTHS.clone();
+        }
+
+        /**
+         * Returns the ImageIO format names to write every thumbnail variant in. Defaults to {@code
+         * png}, the only thumbnail format the JDK can write; the comma-separated {@code
+         * yugiohcards.thumbnailFormats} system property selects others, e.g. {@code png,webp} once
+         * a WebP ImageIO writer is on the classpath. Formats without a registered ImageIO writer
+         * are skipped at runtime.
+         *
+         * @return A copy of the configured thumbnail formats.
+         */
+        public static String[] getThumbnailFormats() {
+            return THUMBNAIL_FORMATS.clone();
+        }
+
+        /**
+         * Returns the number of worker threads of the thumbnail stage. The submitting thread also
+         * decodes an image whenever the work queue is full, so up to one more image than this is
+         * decoded at once.
+         *
+         * @return The number of available processors.
+         */
+        public static int getThumbnailWorkerCount() {
+            return Runtime.getRuntime().availableProcessors();
+        }
+    }
+
     /**
      * Nested class for managing file and directory paths used by the application. Provides methods
      * to get paths for resources, output files, and log files, ensuring paths are constructed
@@ -184,6 +318,73 @@ public class Config { // Renamed class from config to Config
                 return ALL_CARDS_JSON_FILE_PATH;
             }
 
+            private static final String SET_INDEX_FILE_NAME = "setindex.bin";
+            private static final String SET_INDEX_FILE_PATH =
+                    safeJoinPath(OUTPUT_DIRECTORY_PATH, SET_INDEX_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the binary card set index file.
+             *
+             * @return The setindex.bin file path string.
+             */
+            public static String getSetIndexFilePath() {
+                return SET_INDEX_FILE_PATH;
+            }
+
+            private static final String CARD_DATABASE_NAME = "cards";
+            private static final String CARD_DATABASE_PATH =
+                    safeJoinPath(OUTPUT_DIRECTORY_PATH, CARD_DATABASE_NAME);
+
+            /**
+             * Returns the absolute path of the embedded H2 card database, without the {@code
+             * .mv.db} extension that H2 appends to it.
+             *
+             * @return The card database path string.
+             */
+            public static String getCardDatabasePath() {
+                return CARD_DATABASE_PATH;
+            }
+
+            private static final String IMAGE_DIRECTORY_NAME = "images";
+            private static final String IMAGE_DIRECTORY_PATH =
+                    safeJoinPath(getResourceDirectoryPath(), IMAGE_DIRECTORY_NAME);
+
+            /**
+             * Returns the absolute path to the directory holding the source card images.
+             *
+             * @return The image directory path string.
+             */
+            public static String getImageDirectoryPath() {
+                return IMAGE_DIRECTORY_PATH;
+            }
+
+            private static final String THUMBNAIL_DIRECTORY_NAME = "thumbnails";
+            private static final String THUMBNAIL_DIRECTORY_PATH =
+                    safeJoinPath(OUTPUT_DIRECTORY_PATH, THUMBNAIL_DIRECTORY_NAME);
+
+            /**
+             * Returns the absolute path to the directory where thumbnail variants are written.
+             *
+             * @return The thumbnail directory path string.
+             */
+            public static String getThumbnailDirectoryPath() {
+                return THUMBNAIL_DIRECTORY_PATH;
+            }
+
+            private static final String THUMBNAIL_MANIFEST_FILE_NAME = "thumbnails.manifest";
+            private static final String THUMBNAIL_MANIFEST_FILE_PATH =
+                    safeJoinPath(THUMBNAIL_DIRECTORY_PATH, THUMBNAIL_MANIFEST_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the manifest recording the source hash of every
+             * processed image.
+             *
+             * @return The thumbnails.manifest file path string.
+             */
+            public static String getThumbnailManifestFilePath() {
+                return THUMBNAIL_MANIFEST_FILE_PATH;
+            }
+
             private static final String LOG_DIRECTORY_NAME = "log";
             private static final String LOG_DIRECTORY_PATH =
                     safeJoinPath(getResourceDirectoryPath(), LOG_DIRECTORY_NAME);
@@ -222,6 +423,84 @@ public class Config { // Renamed class from config to Config
             public static String getGetAllCardsLogFilePath() {
                 return GET_ALL_CARDS_LOG_FILE_PATH;
             }
+
+            private static final String PRICE_HISTORY_DIRECTORY_NAME = "pricehistory";
+            private static final String PRICE_HISTORY_DIRECTORY_PATH =
+                    safeJoinPath(getResourceDirectoryPath(), PRICE_HISTORY_DIRECTORY_NAME);
+
+            /**
+             * Returns the absolute path to the directory holding the price history segments.
+             *
+             * @return The price history directory path string.
+             */
+            public static String getPriceHistoryDirectoryPath() {
+                return PRICE_HISTORY_DIRECTORY_PATH;
+            }
+
+            private static final String PRICE_HISTORY_LOG_FILE_NAME = "priceHistory.log";
+            private static final String PRICE_HISTORY_LOG_FILE_PATH =
+                    safeJoinPath(LOG_DIRECTORY_PATH, PRICE_HISTORY_LOG_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the log file for the price history recording.
+             *
+             * @return The priceHistory.log file path string.
+             */
+            public static String getPriceHistoryLogFilePath() {
+                return PRICE_HISTORY_LOG_FILE_PATH;
+            }
+
+            private static final String SET_INDEX_LOG_FILE_NAME = "setIndex.log";
+            private static final String SET_INDEX_LOG_FILE_PATH =
+                    safeJoinPath(LOG_DIRECTORY_PATH, SET_INDEX_LOG_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the log file for the set index build.
+             *
+             * @return The setIndex.log file path string.
+             */
+            public static String getSetIndexLogFilePath() {
+                return SET_INDEX_LOG_FILE_PATH;
+            }
+
+            private static final String THUMBNAILS_LOG_FILE_NAME = "thumbnails.log";
+            private static final String THUMBNAILS_LOG_FILE_PATH =
+                    safeJoinPath(LOG_DIRECTORY_PATH, THUMBNAILS_LOG_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the log file for the thumbnail stage.
+             *
+             * @return The thumbnails.log file path string.
+             */
+            public static String getThumbnailsLogFilePath() {
+                return THUMBNAILS_LOG_FILE_PATH;
+            }
+
+            private static final String REPLICATION_LOG_FILE_NAME = "replication.log";
+            private static final String REPLICATION_LOG_FILE_PATH =
+                    safeJoinPath(LOG_DIRECTORY_PATH, REPLICATION_LOG_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the log file for the primary/replica replication.
+             *
+             * @return The replication.log file path string.
+             */
+            public static String getReplicationLogFilePath() {
+                return REPLICATION_LOG_FILE_PATH;
+            }
+
+            private static final String SQL_EXPORT_LOG_FILE_NAME = "sqlExport.log";
+            private static final String SQL_EXPORT_LOG_FILE_PATH =
+                    safeJoinPath(LOG_DIRECTORY_PATH, SQL_EXPORT_LOG_FILE_NAME);
+
+            /**
+             * Returns the absolute path to the log file for the SQL export.
+             *
+             * @return The sqlExport.log file path string.
+             */
+            public static String getSqlExportLogFilePath() {
+                return SQL_EXPORT_LOG_FILE_PATH;
+            }
         }
 
         /**
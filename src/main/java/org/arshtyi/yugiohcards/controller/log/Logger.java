@@ -36,6 +36,10 @@ public class Logger { // Renamed class from logger to Logger
     /** Cyan color for debug */
     private static final String ANSI_CYAN = "\u001B[36m";
 
+    /** Formatter for log timestamps, built once instead of on every call */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd -- HH:mm:ss.SSS");
+
     /**
      * Logs a message to a file or console with the specified severity level. Includes class name,
      * method name, and current time in the log message. Handles exceptions that may occur during
@@ -48,9 +52,7 @@ public class Logger { // Renamed class from logger to Logger
      */
     public static void log(String level, String message, Class<?> sourceClass, String filePath) {
         /** Get the current time and format it as "yyyy-MM-dd -- HH:mm:ss.SSS". */
-        String timestamp =
-                LocalDateTime.now()
-                        .format(DateTimeFormatter.ofPattern("yyyy-MM-dd -- HH:mm:ss.SSS"));
+        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
         /**
          * Format the log message to include the timestamp, severity level, class name, method name,
          * package name, and the log message itself.
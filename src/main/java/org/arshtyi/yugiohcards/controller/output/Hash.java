@@ -0,0 +1,44 @@
+package org.arshtyi.yugiohcards.controller.output;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utility class for the content hashes stored in manifests, snapshots and the card database. All
+ * hashes are lowercase hex SHA-256. This class should not be instantiated.
+ *
+ * @throws AssertionError if an attempt is made to instantiate this utility class.
+ */
+public class Hash {
+    private Hash() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Computes the SHA-256 of a byte array.
+     *
+     * @param data The bytes to hash.
+     * @return The hash as lowercase hex.
+     * @throws IllegalStateException if the JVM provides no SHA-256 implementation.
+     */
+    public static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Computes the SHA-256 of the UTF-8 encoding of a string.
+     *
+     * @param content The string to hash.
+     * @return The hash as lowercase hex.
+     * @throws IllegalStateException if the JVM provides no SHA-256 implementation.
+     */
+    public static String sha256(String content) {
+        return sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
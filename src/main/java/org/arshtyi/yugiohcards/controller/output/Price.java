@@ -0,0 +1,40 @@
+package org.arshtyi.yugiohcards.controller.output;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for converting the decimal price strings of the API to integer cents. Every store
+ * that keeps prices as cents goes through this class so that the same string always maps to the
+ * same value. This class should not be instantiated.
+ *
+ * @throws AssertionError if an attempt is made to instantiate this utility class.
+ */
+public class Price {
+    private Price() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Converts a decimal price string such as {@code "1.23"} to cents, rounding half up.
+     *
+     * @param price The price string from the API.
+     * @return The price in cents, or {@code 0} if the string is empty, not a number, negative, or
+     *     does not fit in an {@code int}.
+     */
+    public static int toCents(String price) {
+        if (price == null || price.isEmpty()) {
+            return 0;
+        }
+        try {
+            int cents =
+                    new BigDecimal(price)
+                            .movePointRight(2)
+                            .setScale(0, RoundingMode.HALF_UP)
+                            .intValueExact();
+            return Math.max(0, cents);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
+        }
+    }
+}
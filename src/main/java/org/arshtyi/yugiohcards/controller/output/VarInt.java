@@ -0,0 +1,88 @@
+package org.arshtyi.yugiohcards.controller.output;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class for variable-length integer encoding used by the binary output files. Unsigned
+ * values are written as LEB128 (seven bits per byte, high bit set on all but the last byte), and
+ * signed values are ZigZag-mapped first so that small negative deltas stay small. This class should
+ * not be instantiated.
+ *
+ * @throws AssertionError if an attempt is made to instantiate this utility class.
+ */
+public class VarInt {
+    private VarInt() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Writes a non-negative value as an unsigned LEB128 varint.
+     *
+     * @param out The stream to write to.
+     * @param value The value to write, interpreted as unsigned.
+     */
+    public static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Writes a signed value as a ZigZag-encoded varint.
+     *
+     * @param out The stream to write to.
+     * @param value The signed value to write.
+     */
+    public static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint from the current position of the buffer.
+     *
+     * @param in The buffer to read from; its position is advanced past the value.
+     * @return The decoded value.
+     * @throws IllegalStateException if the varint is longer than ten bytes.
+     * @throws BufferUnderflowException if the buffer ends in the middle of the value.
+     */
+    public static long readUnsigned(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at position " + in.position());
+    }
+
+    /**
+     * Reads a ZigZag-encoded signed varint from the current position of the buffer.
+     *
+     * @param in The buffer to read from; its position is advanced past the value.
+     * @return The decoded signed value.
+     */
+    public static long readSigned(ByteBuffer in) {
+        long raw = readUnsigned(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Advances the buffer past the given number of varints without decoding them.
+     *
+     * @param in The buffer to advance.
+     * @param count The number of varints to skip.
+     */
+    public static void skip(ByteBuffer in, int count) {
+        while (count > 0) {
+            if ((in.get() & 0x80) == 0) {
+                count--;
+            }
+        }
+    }
+}
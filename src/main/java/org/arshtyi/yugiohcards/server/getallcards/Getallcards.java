@@ -6,6 +6,9 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.arshtyi.yugiohcards.controller.config.Config;
 import org.arshtyi.yugiohcards.controller.log.Logger;
+import org.arshtyi.yugiohcards.server.pricehistory.Pricehistory;
+import org.arshtyi.yugiohcards.server.setindex.Setindex;
+import org.arshtyi.yugiohcards.server.sqlexport.Sqlexport;
 import org.json.JSONObject;
 
 /** Placeholder class for retrieving all card data. */
@@ -15,13 +18,21 @@ public class Getallcards {
         throw new AssertionError("Utility class should not be instantiated");
     }
 
+    /** Main method to retrieve all card data from the Yu-Gi-Oh! API. See {@link #refresh()}. */
+    public static void main() {
+        refresh();
+    }
+
     /**
-     * Main method to retrieve all card data from the Yu-Gi-Oh! API. Fetches card information from
-     * the configured base URL, parses the JSON response, logs the process, and saves the formatted
-     * JSON data to the configured output file. Handles potential exceptions during HTTP request
-     * execution, JSON parsing, and file writing.
+     * Retrieves all card data from the Yu-Gi-Oh! API. Fetches card information from the configured
+     * base URL, parses the JSON response, logs the process, and saves the formatted JSON data to
+     * the configured output file, then passes the data to {@link #ingest(JSONObject)}. Handles
+     * potential exceptions during HTTP request execution, JSON parsing, and file writing.
+     *
+     * @return The parsed API response, or {@code null} if the refresh failed or the response has no
+     *     {@code data} array.
      */
-    public static void main() {
+    public static JSONObject refresh() {
         String logFilePath = Config.Path.FilePath.getGetAllCardsLogFilePath();
         String allCardsJsonFilePath = Config.Path.FilePath.getAllCardsJsonFilePath();
         CloseableHttpClient httpClient = Config.Url.createHttpClient();
@@ -30,6 +41,16 @@ public class Getallcards {
         try {
             CloseableHttpResponse response = httpClient.execute(httpGet);
             JSONObject root = new JSONObject(EntityUtils.toString(response.getEntity()));
+            if (root.optJSONArray("data") == null) {
+                // Upstream errors come back as valid JSON such as {"error": "..."}; keep the
+                // previous allcards.json instead of overwriting it with the error.
+                Logger.log(
+                        "ERROR",
+                        "Response contains no card data array: " + root.optString("error", ""),
+                        Getallcards.class,
+                        logFilePath);
+                return null;
+            }
             // Log that we're starting to write to file
             Logger.log(
                     "INFO",
@@ -46,12 +67,15 @@ public class Getallcards {
                     "Successfully wrote card data to file: " + allCardsJsonFilePath,
                     Getallcards.class,
                     logFilePath);
+            ingest(root);
+            return root;
         } catch (Exception e) {
             Logger.log(
                     "ERROR",
                     "Failed to execute HTTP GET request: " + e.getMessage(),
                     Getallcards.class,
                     logFilePath);
+            return null;
         } finally {
             try {
                 httpClient.close();
@@ -64,4 +88,16 @@ public class Getallcards {
             }
         }
     }
+
+    /**
+     * Runs the stages that derive local data from a new card list: records the card prices into the
+     * price history store, rebuilds the card set index, and updates the SQL database.
+     *
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     */
+    public static void ingest(JSONObject root) {
+        Pricehistory.main(root);
+        Setindex.main(root);
+        Sqlexport.main(root);
+    }
 }
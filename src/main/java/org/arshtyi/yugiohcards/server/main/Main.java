@@ -1,6 +1,10 @@
 package org.arshtyi.yugiohcards.server.main;
 
+import org.arshtyi.yugiohcards.controller.config.Config;
 import org.arshtyi.yugiohcards.server.getallcards.Getallcards;
+import org.arshtyi.yugiohcards.server.replication.Replication;
+import org.arshtyi.yugiohcards.server.startup.Cdstraining;
+import org.arshtyi.yugiohcards.server.thumbnails.Thumbnails;
 
 /**
  * Main server class responsible for initiating the card data retrieval process. This class serves
@@ -13,12 +17,45 @@ public class Main {
     }
 
     /**
-     * The main method for the server component. Currently, it directly calls the main method of
-     * Getallcards to fetch data.
+     * The main method for the server component. Runs the stage selected by the first argument:
+     * {@code fetch} (the default) calls Getallcards to fetch data, {@code thumbnails} generates the
+     * card image thumbnails, {@code primary [port]} fetches periodically and serves snapshots to
+     * replicas, {@code replica <primary url>} follows a primary instead of fetching upstream, and
+     * {@code cds-training} runs the workload used to build the AppCDS archive.
      *
-     * @param args Command line arguments (not currently used).
+     * @param args Command line arguments; the first one selects the stage to run.
      */
     public static void main(String[] args) {
-        Getallcards.main();
+        String mode = args.length > 0 ? args[0] : "fetch";
+        switch (mode) {
+            case "fetch":
+                Getallcards.main();
+                break;
+            case "thumbnails":
+                Thumbnails.main();
+                break;
+            case "primary":
+                Replication.primary(
+                        args.length > 1
+                                ? Integer.parseInt(args[1])
+                                : Config.Replication.getDefaultPort());
+                break;
+            case "replica":
+                if (args.length < 2) {
+                    System.err.println("Usage: replica <primary url>");
+                    break;
+                }
+                Replication.replica(args[1]);
+                break;
+            case "cds-training":
+                Cdstraining.main();
+                break;
+            default:
+                System.err.println(
+                        "Unknown mode: "
+                                + mode
+                                + " (expected fetch, thumbnails, primary, replica or"
+                                + " cds-training)");
+        }
     }
 }
@@ -0,0 +1,348 @@
+package org.arshtyi.yugiohcards.server.pricehistory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Local time-series store for card prices. Every refresh is appended as one row per card to the
+ * newest segment file; once a segment holds {@link #SEGMENT_CAPACITY} refreshes it is sealed and a
+ * new one is started. Sealed segments are immutable and memory-mapped when queried. See {@link
+ * PriceSegment} for the on-disk encoding.
+ */
+public class PriceHistoryStore {
+    /** Number of refreshes kept per segment before it is sealed. */
+    public static final int SEGMENT_CAPACITY = 64;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".ph";
+
+    /** A single observed price. */
+    public record PricePoint(long timestamp, int cents) {}
+
+    /** Aggregate of the non-zero prices of a card within a time range. */
+    public record PriceSummary(int minCents, int maxCents, double averageCents, int count) {}
+
+    /** Change of a card's price between the first observation since a time and the latest one. */
+    public record PriceMove(int cardId, int fromCents, int toCents) {
+        /**
+         * Returns the absolute price change.
+         *
+         * @return {@code toCents - fromCents}.
+         */
+        public int changeCents() {
+            return toCents - fromCents;
+        }
+    }
+
+    /** Prices of all cards at one refresh, with card ids in ascending order. */
+    public record Snapshot(int[] cardIds, int[][] pricesBySource) {}
+
+    private final Path directory;
+
+    /**
+     * Creates a store rooted at the given directory. The directory is created on first append.
+     *
+     * @param directory The directory holding the segment files.
+     */
+    public PriceHistoryStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Appends one refresh to the store. Cards that are new in this refresh read as {@code 0} for
+     * earlier refreshes of the same segment, and cards missing from it read as {@code 0} here.
+     *
+     * @param timestamp The refresh time in epoch seconds; must be later than the last append.
+     * @param snapshot The prices observed at this refresh.
+     * @throws IOException if the segment cannot be read or written.
+     * @throws IllegalArgumentException if {@code timestamp} is not after the last stored refresh.
+     */
+    public void append(long timestamp, Snapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        Path target;
+        long[] oldTimestamps = new long[0];
+        int[] oldIds = new int[0];
+        int[][] oldPrices = new int[PriceSource.values().length][0];
+        if (segments.isEmpty()) {
+            target = segmentPath(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            PriceSegment segment = PriceSegment.open(last, false);
+            long[] lastTimestamps = segment.getTimestamps();
+            if (lastTimestamps.length > 0
+                    && timestamp <= lastTimestamps[lastTimestamps.length - 1]) {
+                throw new IllegalArgumentException(
+                        "Timestamp " + timestamp + " is not after the last stored refresh");
+            }
+            if (lastTimestamps.length >= SEGMENT_CAPACITY) {
+                target = segmentPath(segments.size());
+            } else {
+                target = last;
+                oldTimestamps = lastTimestamps;
+                oldIds = segment.getCardIds();
+                for (PriceSource source : PriceSource.values()) {
+                    oldPrices[source.ordinal()] = segment.decodeColumn(source);
+                }
+            }
+        }
+
+        int oldRefreshes = oldTimestamps.length;
+        int refreshCount = oldRefreshes + 1;
+        long[] timestamps = Arrays.copyOf(oldTimestamps, refreshCount);
+        timestamps[oldRefreshes] = timestamp;
+        int[] newIds = snapshot.cardIds();
+        int[] ids = mergeSorted(oldIds, newIds);
+        int[][] prices = new int[oldPrices.length][ids.length * refreshCount];
+        int oldIndex = 0;
+        int newIndex = 0;
+        for (int c = 0; c < ids.length; c++) {
+            int id = ids[c];
+            boolean inOld = oldIndex < oldIds.length && oldIds[oldIndex] == id;
+            boolean inNew = newIndex < newIds.length && newIds[newIndex] == id;
+            for (int s = 0; s < prices.length; s++) {
+                if (inOld) {
+                    System.arraycopy(
+                            oldPrices[s],
+                            oldIndex * oldRefreshes,
+                            prices[s],
+                            c * refreshCount,
+                            oldRefreshes);
+                }
+                if (inNew) {
+                    prices[s][c * refreshCount + oldRefreshes] =
+                            snapshot.pricesBySource()[s][newIndex];
+                }
+            }
+            if (inOld) {
+                oldIndex++;
+            }
+            if (inNew) {
+                newIndex++;
+            }
+        }
+        PriceSegment.write(target, timestamps, ids, prices);
+    }
+
+    /**
+     * Returns the observed prices of one card within {@code [from, to]}, skipping refreshes where
+     * the card was not listed.
+     *
+     * @param cardId The card id.
+     * @param source The price source.
+     * @param from Inclusive start, epoch seconds.
+     * @param to Inclusive end, epoch seconds.
+     * @return The price points in time order.
+     * @throws IOException if a segment cannot be read.
+     */
+    public List<PricePoint> range(int cardId, PriceSource source, long from, long to)
+            throws IOException {
+        List<PricePoint> points = new ArrayList<>();
+        for (PriceSegment segment : openSegments(from, to)) {
+            int index = segment.indexOf(cardId);
+            if (index < 0) {
+                continue;
+            }
+            long[] timestamps = segment.getTimestamps();
+            int[] series = segment.decodeCard(source, index);
+            for (int r = 0; r < timestamps.length; r++) {
+                if (timestamps[r] >= from && timestamps[r] <= to && series[r] != 0) {
+                    points.add(new PricePoint(timestamps[r], series[r]));
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Computes min/max/average of one card's prices within {@code [from, to]}.
+     *
+     * @param cardId The card id.
+     * @param source The price source.
+     * @param from Inclusive start, epoch seconds.
+     * @param to Inclusive end, epoch seconds.
+     * @return The summary, or {@code null} if the card has no prices in the range.
+     * @throws IOException if a segment cannot be read.
+     */
+    public PriceSummary summarize(int cardId, PriceSource source, long from, long to)
+            throws IOException {
+        List<PricePoint> points = range(cardId, source, from, to);
+        if (points.isEmpty()) {
+            return null;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long sum = 0;
+        for (PricePoint point : points) {
+            min = Math.min(min, point.cents());
+            max = Math.max(max, point.cents());
+            sum += point.cents();
+        }
+        return new PriceSummary(min, max, (double) sum / points.size(), points.size());
+    }
+
+    /**
+     * Computes min/max/average for every card within {@code [from, to]} in a single pass over each
+     * column.
+     *
+     * @param source The price source.
+     * @param from Inclusive start, epoch seconds.
+     * @param to Inclusive end, epoch seconds.
+     * @return Summaries keyed by card id; cards without prices in the range are omitted.
+     * @throws IOException if a segment cannot be read.
+     */
+    public Map<Integer, PriceSummary> summarizeAll(PriceSource source, long from, long to)
+            throws IOException {
+        Map<Integer, long[]> accumulators = new HashMap<>(); // min, max, sum, count
+        for (PriceSegment segment : openSegments(from, to)) {
+            long[] timestamps = segment.getTimestamps();
+            int[] ids = segment.getCardIds();
+            int[] column = segment.decodeColumn(source);
+            for (int c = 0; c < ids.length; c++) {
+                long[] acc = null;
+                for (int r = 0; r < timestamps.length; r++) {
+                    int price = column[c * timestamps.length + r];
+                    if (price == 0 || timestamps[r] < from || timestamps[r] > to) {
+                        continue;
+                    }
+                    if (acc == null) {
+                        acc =
+                                accumulators.computeIfAbsent(
+                                        ids[c],
+                                        id ->
+                                                new long[] {
+                                                    Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 0
+                                                });
+                    }
+                    acc[0] = Math.min(acc[0], price);
+                    acc[1] = Math.max(acc[1], price);
+                    acc[2] += price;
+                    acc[3]++;
+                }
+            }
+        }
+        Map<Integer, PriceSummary> summaries = new HashMap<>(accumulators.size() * 2);
+        accumulators.forEach(
+                (id, acc) ->
+                        summaries.put(
+                                id,
+                                new PriceSummary(
+                                        (int) acc[0],
+                                        (int) acc[1],
+                                        (double) acc[2] / acc[3],
+                                        (int) acc[3])));
+        return summaries;
+    }
+
+    /**
+     * Finds the cards whose price changed the most between their first observation at or after
+     * {@code since} and their latest observation.
+     *
+     * @param source The price source.
+     * @param since Epoch seconds to measure from.
+     * @param limit Maximum number of cards to return.
+     * @return Moves ordered by descending absolute change.
+     * @throws IOException if a segment cannot be read.
+     */
+    public List<PriceMove> biggestMovers(PriceSource source, long since, int limit)
+            throws IOException {
+        Map<Integer, int[]> firstAndLast = new HashMap<>();
+        for (PriceSegment segment : openSegments(since, Long.MAX_VALUE)) {
+            long[] timestamps = segment.getTimestamps();
+            int[] ids = segment.getCardIds();
+            int[] column = segment.decodeColumn(source);
+            for (int c = 0; c < ids.length; c++) {
+                for (int r = 0; r < timestamps.length; r++) {
+                    int price = column[c * timestamps.length + r];
+                    if (price == 0 || timestamps[r] < since) {
+                        continue;
+                    }
+                    int[] pair = firstAndLast.get(ids[c]);
+                    if (pair == null) {
+                        firstAndLast.put(ids[c], new int[] {price, price});
+                    } else {
+                        pair[1] = price;
+                    }
+                }
+            }
+        }
+        List<PriceMove> moves = new ArrayList<>();
+        firstAndLast.forEach(
+                (id, pair) -> {
+                    if (pair[0] != pair[1]) {
+                        moves.add(new PriceMove(id, pair[0], pair[1]));
+                    }
+                });
+        moves.sort(
+                Comparator.comparingInt((PriceMove move) -> Math.abs(move.changeCents()))
+                        .reversed()
+                        .thenComparingInt(PriceMove::cardId));
+        return moves.size() > limit ? new ArrayList<>(moves.subList(0, limit)) : moves;
+    }
+
+    /** Opens every segment that may contain refreshes within {@code [from, to]}, in time order. */
+    private List<PriceSegment> openSegments(long from, long to) throws IOException {
+        List<PriceSegment> result = new ArrayList<>();
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean sealed = i < segments.size() - 1;
+            PriceSegment segment = PriceSegment.open(segments.get(i), sealed);
+            long[] timestamps = segment.getTimestamps();
+            if (timestamps.length == 0
+                    || timestamps[timestamps.length - 1] < from
+                    || timestamps[0] > to) {
+                continue;
+            }
+            result.add(segment);
+        }
+        return result;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(
+                            path -> {
+                                String name = path.getFileName().toString();
+                                return name.startsWith(SEGMENT_PREFIX)
+                                        && name.endsWith(SEGMENT_SUFFIX);
+                            })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static int[] mergeSorted(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            merged[n++] = next;
+        }
+        return Arrays.copyOf(merged, n);
+    }
+}
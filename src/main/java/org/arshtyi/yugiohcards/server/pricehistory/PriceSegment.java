@@ -0,0 +1,215 @@
+package org.arshtyi.yugiohcards.server.pricehistory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.arshtyi.yugiohcards.controller.output.VarInt;
+
+/**
+ * One block of consecutive refreshes in the price history store. Prices are kept column-wise: one
+ * column per {@link PriceSource}, and inside each column the series of every card is stored
+ * contiguously as ZigZag varint deltas of scaled-integer (cent) prices. Refresh timestamps are
+ * stored once per segment using delta-of-delta encoding, so regular cron refreshes cost a single
+ * byte each. A price of {@code 0} means the card was not listed (or not present) at that refresh.
+ *
+ * <p>File layout: {@code MAGIC, VERSION, refreshCount, cardCount, timestamps, cardIds}, followed by
+ * one {@code int length + bytes} block per source so that a query can jump straight to the column
+ * it needs.
+ */
+class PriceSegment {
+    private static final int MAGIC = 0x59475048; // "YGPH"
+    private static final byte VERSION = 1;
+
+    private final long[] timestamps;
+    private final int[] cardIds;
+    private final ByteBuffer buffer;
+    private final int[] columnOffsets;
+
+    private PriceSegment(long[] timestamps, int[] cardIds, ByteBuffer buffer, int[] columnOffsets) {
+        this.timestamps = timestamps;
+        this.cardIds = cardIds;
+        this.buffer = buffer;
+        this.columnOffsets = columnOffsets;
+    }
+
+    /**
+     * Opens a segment file. Sealed segments are memory-mapped; the open (still growing) segment is
+     * read onto the heap so that it can be atomically replaced on the next append.
+     *
+     * @param file The segment file.
+     * @param mapped Whether to memory-map the file instead of reading it.
+     * @return The opened segment.
+     * @throws IOException if the file cannot be read or is not a valid segment.
+     */
+    static PriceSegment open(Path file, boolean mapped) throws IOException {
+        ByteBuffer buffer;
+        if (mapped) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer map =
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer = map;
+            }
+        } else {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException("Not a price history segment: " + file);
+        }
+        int refreshCount = (int) VarInt.readUnsigned(buffer);
+        int cardCount = (int) VarInt.readUnsigned(buffer);
+
+        long[] timestamps = new long[refreshCount];
+        long previous = 0;
+        long previousDelta = 0;
+        for (int r = 0; r < refreshCount; r++) {
+            long value = VarInt.readSigned(buffer);
+            if (r == 0) {
+                timestamps[r] = value;
+            } else {
+                long delta = (r == 1) ? value : previousDelta + value;
+                timestamps[r] = previous + delta;
+                previousDelta = delta;
+            }
+            previous = timestamps[r];
+        }
+
+        int[] cardIds = new int[cardCount];
+        int previousId = 0;
+        for (int c = 0; c < cardCount; c++) {
+            previousId += (int) VarInt.readUnsigned(buffer);
+            cardIds[c] = previousId;
+        }
+
+        int[] columnOffsets = new int[PriceSource.values().length];
+        for (int s = 0; s < columnOffsets.length; s++) {
+            int length = buffer.getInt();
+            columnOffsets[s] = buffer.position();
+            buffer.position(buffer.position() + length);
+        }
+        return new PriceSegment(timestamps, cardIds, buffer, columnOffsets);
+    }
+
+    /**
+     * Encodes the given refreshes and writes them to {@code file}, replacing it atomically.
+     *
+     * @param file The destination segment file.
+     * @param timestamps Strictly increasing refresh timestamps in epoch seconds.
+     * @param cardIds Sorted card ids present in this segment.
+     * @param prices Per-source prices in cents, indexed {@code [source][card * refreshCount + r]}.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(Path file, long[] timestamps, int[] cardIds, int[][] prices)
+            throws IOException {
+        int refreshCount = timestamps.length;
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        VarInt.writeUnsigned(header, refreshCount);
+        VarInt.writeUnsigned(header, cardIds.length);
+        long previousDelta = 0;
+        for (int r = 0; r < refreshCount; r++) {
+            if (r == 0) {
+                VarInt.writeSigned(header, timestamps[0]);
+            } else {
+                long delta = timestamps[r] - timestamps[r - 1];
+                VarInt.writeSigned(header, (r == 1) ? delta : delta - previousDelta);
+                previousDelta = delta;
+            }
+        }
+        int previousId = 0;
+        for (int id : cardIds) {
+            VarInt.writeUnsigned(header, id - previousId);
+            previousId = id;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteBuffer lengthBytes = ByteBuffer.allocate(Integer.BYTES);
+        for (int[] column : prices) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            for (int c = 0; c < cardIds.length; c++) {
+                int previousPrice = 0;
+                for (int r = 0; r < refreshCount; r++) {
+                    int price = column[c * refreshCount + r];
+                    VarInt.writeSigned(encoded, price - previousPrice);
+                    previousPrice = price;
+                }
+            }
+            lengthBytes.clear();
+            lengthBytes.putInt(encoded.size());
+            body.write(lengthBytes.array(), 0, Integer.BYTES);
+            encoded.writeTo(body);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + 1 + header.size() + body.size());
+        out.putInt(MAGIC).put(VERSION).put(header.toByteArray()).put(body.toByteArray());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, out.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    long[] getTimestamps() {
+        return timestamps;
+    }
+
+    int[] getCardIds() {
+        return cardIds;
+    }
+
+    /**
+     * Returns the position of a card in this segment.
+     *
+     * @param cardId The card id to look up.
+     * @return The card index, or a negative value if the card is not in this segment.
+     */
+    int indexOf(int cardId) {
+        return Arrays.binarySearch(cardIds, cardId);
+    }
+
+    /**
+     * Decodes one whole column.
+     *
+     * @param source The price source to decode.
+     * @return Prices in cents, indexed {@code [card * refreshCount + r]}.
+     */
+    int[] decodeColumn(PriceSource source) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(columnOffsets[source.ordinal()]);
+        int refreshCount = timestamps.length;
+        int[] column = new int[cardIds.length * refreshCount];
+        for (int c = 0; c < cardIds.length; c++) {
+            int price = 0;
+            for (int r = 0; r < refreshCount; r++) {
+                price += (int) VarInt.readSigned(in);
+                column[c * refreshCount + r] = price;
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Decodes the series of a single card, skipping over the cards stored before it.
+     *
+     * @param source The price source to decode.
+     * @param cardIndex The index returned by {@link #indexOf(int)}.
+     * @return Prices in cents, one per refresh of this segment.
+     */
+    int[] decodeCard(PriceSource source, int cardIndex) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(columnOffsets[source.ordinal()]);
+        int refreshCount = timestamps.length;
+        VarInt.skip(in, cardIndex * refreshCount);
+        int[] series = new int[refreshCount];
+        int price = 0;
+        for (int r = 0; r < refreshCount; r++) {
+            price += (int) VarInt.readSigned(in);
+            series[r] = price;
+        }
+        return series;
+    }
+}
@@ -0,0 +1,29 @@
+package org.arshtyi.yugiohcards.server.pricehistory;
+
+/**
+ * The marketplaces reported in the {@code card_prices} object of each card. The ordinal of each
+ * constant is the column index used in the price history segment files, so new sources must only
+ * ever be appended.
+ */
+public enum PriceSource {
+    CARDMARKET("cardmarket_price"),
+    TCGPLAYER("tcgplayer_price"),
+    EBAY("ebay_price"),
+    AMAZON("amazon_price"),
+    COOLSTUFFINC("coolstuffinc_price");
+
+    private final String jsonKey;
+
+    PriceSource(String jsonKey) {
+        this.jsonKey = jsonKey;
+    }
+
+    /**
+     * Returns the key of this source inside a {@code card_prices} entry.
+     *
+     * @return The JSON key, e.g. {@code "tcgplayer_price"}.
+     */
+    public String getJsonKey() {
+        return jsonKey;
+    }
+}
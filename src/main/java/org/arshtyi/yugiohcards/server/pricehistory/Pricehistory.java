@@ -0,0 +1,89 @@
+package org.arshtyi.yugiohcards.server.pricehistory;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.controller.log.Logger;
+import org.arshtyi.yugiohcards.controller.output.Price;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/** Records the {@code card_prices} of every card into the local price history store. */
+public class Pricehistory {
+    private Pricehistory() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Appends the prices contained in a freshly fetched card list to the price history store,
+     * timestamped with the current time. Errors are logged and do not propagate, so a failure here
+     * never invalidates the fetch that produced the data.
+     *
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     */
+    public static void main(JSONObject root) {
+        String logFilePath = Config.Path.FilePath.getPriceHistoryLogFilePath();
+        try {
+            PriceHistoryStore.Snapshot snapshot = toSnapshot(root);
+            PriceHistoryStore store =
+                    new PriceHistoryStore(
+                            Paths.get(Config.Path.FilePath.getPriceHistoryDirectoryPath()));
+            store.append(Instant.now().getEpochSecond(), snapshot);
+            Logger.log(
+                    "INFO",
+                    "Recorded prices of " + snapshot.cardIds().length + " cards",
+                    Pricehistory.class,
+                    logFilePath);
+        } catch (Exception e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to record price history: " + e.getMessage(),
+                    Pricehistory.class,
+                    logFilePath);
+        }
+    }
+
+    /**
+     * Extracts the prices of all cards, sorted by card id.
+     *
+     * @param root The parsed API response.
+     * @return The snapshot to append.
+     */
+    static PriceHistoryStore.Snapshot toSnapshot(JSONObject root) {
+        JSONArray data = root.getJSONArray("data");
+        PriceSource[] sources = PriceSource.values();
+        long[] packed = new long[data.length()]; // id << 32 | index, sorted by id
+        for (int i = 0; i < data.length(); i++) {
+            packed[i] = ((long) data.getJSONObject(i).getInt("id") << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] ids = new int[packed.length];
+        int[][] prices = new int[sources.length][packed.length];
+        int count = 0;
+        for (long entry : packed) {
+            int id = (int) (entry >>> 32);
+            if (count > 0 && ids[count - 1] == id) {
+                continue; // duplicate id in the response, keep the first
+            }
+            ids[count] = id;
+            JSONArray cardPrices = data.getJSONObject((int) entry).optJSONArray("card_prices");
+            JSONObject price =
+                    (cardPrices == null || cardPrices.length() == 0)
+                            ? null
+                            : cardPrices.optJSONObject(0);
+            for (PriceSource source : sources) {
+                prices[source.ordinal()][count] =
+                        price == null ? 0 : Price.toCents(price.optString(source.getJsonKey(), ""));
+            }
+            count++;
+        }
+        for (int s = 0; s < prices.length; s++) {
+            prices[s] = Arrays.copyOf(prices[s], count);
+        }
+        return new PriceHistoryStore.Snapshot(Arrays.copyOf(ids, count), prices);
+    }
+}
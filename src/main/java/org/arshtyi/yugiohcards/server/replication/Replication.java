@@ -0,0 +1,234 @@
+package org.arshtyi.yugiohcards.server.replication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.controller.log.Logger;
+import org.arshtyi.yugiohcards.server.getallcards.Getallcards;
+import org.json.JSONObject;
+
+/**
+ * Primary/replica mode. Only the primary calls the upstream API; it publishes each new card list as
+ * a versioned snapshot over HTTP. Replicas poll the primary every few seconds, pull the delta (or
+ * the full snapshot when they are too far behind), verify its checksum, and atomically replace
+ * their local {@code allcards.json}. Upstream traffic therefore does not grow with the number of
+ * replicas.
+ */
+public class Replication {
+    private Replication() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Runs as the primary: serves snapshots on {@link Config.Replication#getBindAddress()} and
+     * {@code port} and refreshes from the upstream API every {@link
+     * Config.Replication#getRefreshIntervalSeconds()} seconds. A failed refresh is retried after
+     * {@link Config.Replication#getRetryInitialSeconds()} seconds, doubling up to {@link
+     * Config.Replication#getRetryMaxSeconds()}, so that replicas are not left without a snapshot
+     * for a whole refresh interval. A new version is only published when the card list actually
+     * changed. Runs until the thread is interrupted.
+     *
+     * @param port The TCP port to serve snapshots on.
+     */
+    public static void primary(int port) {
+        String logFilePath = Config.Path.FilePath.getReplicationLogFilePath();
+        Path allCardsJsonFilePath = Paths.get(Config.Path.FilePath.getAllCardsJsonFilePath());
+        String bindAddress = Config.Replication.getBindAddress();
+        SnapshotServer server;
+        try {
+            server = new SnapshotServer(bindAddress, port);
+        } catch (Exception e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to start snapshot server on "
+                            + bindAddress
+                            + ":"
+                            + port
+                            + ": "
+                            + e.getMessage(),
+                    Replication.class,
+                    logFilePath);
+            return;
+        }
+        server.start();
+        Logger.log(
+                "INFO",
+                "Primary serving snapshots on " + bindAddress + ":" + server.getPort(),
+                Replication.class,
+                logFilePath);
+        try {
+            long retrySeconds = Config.Replication.getRetryInitialSeconds();
+            while (!Thread.currentThread().isInterrupted()) {
+                Snapshot current = server.current();
+                Snapshot next =
+                        refresh(current == null ? 1 : current.getVersion() + 1, logFilePath);
+                if (next == null) {
+                    Logger.log(
+                            "WARNING",
+                            "Upstream refresh failed, retrying in " + retrySeconds + " s",
+                            Replication.class,
+                            logFilePath);
+                    if (!sleep(retrySeconds)) {
+                        return;
+                    }
+                    retrySeconds =
+                            Math.min(retrySeconds * 2, Config.Replication.getRetryMaxSeconds());
+                    continue;
+                }
+                retrySeconds = Config.Replication.getRetryInitialSeconds();
+                if (current == null || !current.getChecksum().equals(next.getChecksum())) {
+                    server.publish(next);
+                    current = next;
+                    Logger.log(
+                            "INFO",
+                            "Published snapshot version "
+                                    + next.getVersion()
+                                    + " with "
+                                    + next.size()
+                                    + " cards, checksum "
+                                    + next.getChecksum(),
+                            Replication.class,
+                            logFilePath);
+                }
+                try {
+                    // Getallcards wrote the upstream response as is; replace it with the rendering
+                    // replicas write so that allcards.json is byte-identical on every node.
+                    writeAllCardsJson(current, allCardsJsonFilePath);
+                } catch (Exception e) {
+                    Logger.log(
+                            "ERROR",
+                            "Failed to write " + allCardsJsonFilePath + ": " + e.getMessage(),
+                            Replication.class,
+                            logFilePath);
+                }
+                if (!sleep(Config.Replication.getRefreshIntervalSeconds())) {
+                    return;
+                }
+            }
+        } finally {
+            server.stop();
+            Logger.log("INFO", "Primary stopped", Replication.class, logFilePath);
+        }
+    }
+
+    /**
+     * Fetches the card list from upstream and turns it into a snapshot.
+     *
+     * @param version The version to assign to the snapshot.
+     * @return The snapshot, or {@code null} if the fetch failed or the response is not a valid card
+     *     list, e.g. an upstream error body.
+     */
+    private static Snapshot refresh(long version, String logFilePath) {
+        JSONObject root = Getallcards.refresh();
+        if (root == null) {
+            return null;
+        }
+        try {
+            return Snapshot.fromRoot(version, root);
+        } catch (RuntimeException e) {
+            Logger.log(
+                    "ERROR",
+                    "Upstream response is not a valid card list: " + e.getMessage(),
+                    Replication.class,
+                    logFilePath);
+            return null;
+        }
+    }
+
+    /**
+     * Runs as a replica of the given primary, polling it every {@link
+     * Config.Replication#getPollIntervalSeconds()} seconds. Each new snapshot is written to {@code
+     * allcards.json} atomically, after which {@link Getallcards#ingest(JSONObject)} runs as after a
+     * regular fetch. Runs until the thread is interrupted.
+     *
+     * @param primaryUrl The base URL of the primary, e.g. {@code http://localhost:8470}.
+     */
+    public static void replica(String primaryUrl) {
+        String logFilePath = Config.Path.FilePath.getReplicationLogFilePath();
+        Path allCardsJsonFilePath = Paths.get(Config.Path.FilePath.getAllCardsJsonFilePath());
+        Logger.log(
+                "INFO", "Replicating from primary " + primaryUrl, Replication.class, logFilePath);
+        Snapshot local = null;
+        try (CloseableHttpClient httpClient = Config.Url.createHttpClient()) {
+            SnapshotClient client = new SnapshotClient(httpClient, primaryUrl);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Snapshot updated = client.sync(local);
+                    if (updated != local) {
+                        JSONObject root = writeAllCardsJson(updated, allCardsJsonFilePath);
+                        local = updated;
+                        Logger.log(
+                                "INFO",
+                                "Applied snapshot version "
+                                        + local.getVersion()
+                                        + " with "
+                                        + local.size()
+                                        + " cards, checksum "
+                                        + local.getChecksum(),
+                                Replication.class,
+                                logFilePath);
+                        Getallcards.ingest(root);
+                    }
+                } catch (Exception e) {
+                    Logger.log(
+                            "WARNING",
+                            "Failed to sync with primary: " + e.getMessage(),
+                            Replication.class,
+                            logFilePath);
+                }
+                if (!sleep(Config.Replication.getPollIntervalSeconds())) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to close HTTP client: " + e.getMessage(),
+                    Replication.class,
+                    logFilePath);
+        }
+    }
+
+    /**
+     * Atomically replaces {@code allcards.json} with a snapshot. The primary and the replicas both
+     * write through this method, so the file is byte-identical on every node holding the same
+     * snapshot: cards sorted by id, formatted like a regular fetch.
+     *
+     * @return The written document, parsed.
+     * @throws IOException if the file cannot be written.
+     */
+    private static JSONObject writeAllCardsJson(Snapshot snapshot, Path allCardsJsonFilePath)
+            throws IOException {
+        JSONObject root =
+                new JSONObject(new String(snapshot.toAllCardsJson(), StandardCharsets.UTF_8));
+        Files.createDirectories(allCardsJsonFilePath.getParent());
+        Path temp =
+                allCardsJsonFilePath.resolveSibling(allCardsJsonFilePath.getFileName() + ".tmp");
+        Files.writeString(temp, root.toString(4), StandardCharsets.UTF_8);
+        Files.move(
+                temp,
+                allCardsJsonFilePath,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return root;
+    }
+
+    /** Sleeps for the given number of seconds, returning {@code false} if interrupted. */
+    private static boolean sleep(long seconds) {
+        try {
+            TimeUnit.SECONDS.sleep(seconds);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
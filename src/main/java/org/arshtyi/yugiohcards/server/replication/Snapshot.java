@@ -0,0 +1,165 @@
+package org.arshtyi.yugiohcards.server.replication;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.arshtyi.yugiohcards.controller.output.Hash;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Immutable, versioned copy of the card list as replicated from the primary. Cards are kept as the
+ * exact JSON text the primary serialized them to, sorted by id, so that the primary and every
+ * replica produce byte-identical snapshots and checksums without re-serializing JSON.
+ *
+ * <p>Wire format of a snapshot: one line per card, {@code <id>\t<card json>\n}. Wire format of a
+ * delta: {@code +<id>\t<card json>\n} for added or changed cards and {@code -<id>\n} for removed
+ * ones. The checksum is the hex SHA-256 of the snapshot wire format.
+ */
+class Snapshot {
+    private final long version;
+    private final NavigableMap<Integer, String> cards;
+    private final byte[] bytes;
+    private final String checksum;
+
+    private Snapshot(long version, NavigableMap<Integer, String> cards) {
+        this.version = version;
+        this.cards = Collections.unmodifiableNavigableMap(cards);
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<Integer, String> card : cards.entrySet()) {
+            content.append(card.getKey()).append('\t').append(card.getValue()).append('\n');
+        }
+        this.bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        this.checksum = Hash.sha256(bytes);
+    }
+
+    /**
+     * Creates a snapshot from a parsed API response.
+     *
+     * @param version The version to assign.
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     * @return The snapshot.
+     */
+    static Snapshot fromRoot(long version, JSONObject root) {
+        JSONArray data = root.getJSONArray("data");
+        TreeMap<Integer, String> cards = new TreeMap<>();
+        for (int i = 0; i < data.length(); i++) {
+            JSONObject card = data.getJSONObject(i);
+            cards.putIfAbsent(card.getInt("id"), card.toString());
+        }
+        return new Snapshot(version, cards);
+    }
+
+    /**
+     * Parses a snapshot received from the primary.
+     *
+     * @param version The version announced by the primary.
+     * @param bytes The snapshot wire format.
+     * @return The snapshot.
+     */
+    static Snapshot parse(long version, byte[] bytes) {
+        TreeMap<Integer, String> cards = new TreeMap<>();
+        for (String line : lines(bytes)) {
+            int tab = line.indexOf('\t');
+            cards.put(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+        }
+        return new Snapshot(version, cards);
+    }
+
+    /**
+     * Encodes the changes needed to turn {@code base} into this snapshot.
+     *
+     * @param base The previous snapshot.
+     * @return The delta wire format.
+     */
+    byte[] deltaFrom(Snapshot base) {
+        StringBuilder delta = new StringBuilder();
+        for (Map.Entry<Integer, String> card : cards.entrySet()) {
+            if (!card.getValue().equals(base.cards.get(card.getKey()))) {
+                delta.append('+').append(card.getKey()).append('\t').append(card.getValue());
+                delta.append('\n');
+            }
+        }
+        for (Integer id : base.cards.keySet()) {
+            if (!cards.containsKey(id)) {
+                delta.append('-').append(id).append('\n');
+            }
+        }
+        return delta.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Applies a delta produced by {@link #deltaFrom(Snapshot)} to this snapshot.
+     *
+     * @param newVersion The version of the resulting snapshot.
+     * @param delta The delta wire format.
+     * @return The new snapshot; this snapshot is left unchanged.
+     * @throws IllegalArgumentException if the delta is malformed.
+     */
+    Snapshot apply(long newVersion, byte[] delta) {
+        TreeMap<Integer, String> updated = new TreeMap<>(cards);
+        for (String line : lines(delta)) {
+            char op = line.charAt(0);
+            if (op == '+') {
+                int tab = line.indexOf('\t');
+                updated.put(Integer.parseInt(line.substring(1, tab)), line.substring(tab + 1));
+            } else if (op == '-') {
+                updated.remove(Integer.parseInt(line.substring(1)));
+            } else {
+                throw new IllegalArgumentException("Malformed delta line: " + line);
+            }
+        }
+        return new Snapshot(newVersion, updated);
+    }
+
+    /**
+     * Renders the snapshot compactly in the shape of the API response, {@code {"data":[...]}}, with
+     * the cards in id order.
+     *
+     * @return The JSON document as UTF-8 bytes.
+     */
+    byte[] toAllCardsJson() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 16);
+        out.writeBytes("{\"data\":[".getBytes(StandardCharsets.UTF_8));
+        Iterator<String> iterator = cards.values().iterator();
+        while (iterator.hasNext()) {
+            out.writeBytes(iterator.next().getBytes(StandardCharsets.UTF_8));
+            if (iterator.hasNext()) {
+                out.write(',');
+            }
+        }
+        out.writeBytes("]}".getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int size() {
+        return cards.size();
+    }
+
+    /**
+     * Returns the snapshot wire format. The returned array must not be modified.
+     *
+     * @return The snapshot bytes.
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    String getChecksum() {
+        return checksum;
+    }
+
+    private static String[] lines(byte[] bytes) {
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        return content.isEmpty() ? new String[0] : content.split("\n");
+    }
+}
@@ -0,0 +1,101 @@
+package org.arshtyi.yugiohcards.server.replication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.controller.output.Hash;
+
+/**
+ * Replica side of the replication protocol. Brings a local snapshot up to date with the primary,
+ * preferring the delta from the previous version and falling back to the full snapshot. Every
+ * result is verified against the checksum announced by the primary before it is returned.
+ */
+class SnapshotClient {
+    private final CloseableHttpClient httpClient;
+    private final String primaryUrl;
+
+    /**
+     * Creates a client for the given primary.
+     *
+     * @param httpClient The HTTP client to use; it is not closed by this class.
+     * @param primaryUrl The base URL of the primary, e.g. {@code http://localhost:8470}.
+     */
+    SnapshotClient(CloseableHttpClient httpClient, String primaryUrl) {
+        this.httpClient = httpClient;
+        this.primaryUrl =
+                primaryUrl.endsWith("/")
+                        ? primaryUrl.substring(0, primaryUrl.length() - 1)
+                        : primaryUrl;
+    }
+
+    /**
+     * Synchronizes with the primary.
+     *
+     * @param local The snapshot currently held, or {@code null} if there is none.
+     * @return {@code local} if it is already up to date, otherwise the new verified snapshot.
+     * @throws IOException if the primary cannot be reached or a checksum does not match.
+     */
+    Snapshot sync(Snapshot local) throws IOException {
+        String[] version;
+        try (CloseableHttpResponse response = get("/version")) {
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new IOException("Primary has no snapshot: " + body);
+            }
+            version = body.trim().split("\t");
+        }
+        if (local != null && local.getChecksum().equals(version[1])) {
+            return local;
+        }
+
+        if (local != null) {
+            try (CloseableHttpResponse response = get("/delta?from=" + local.getVersion())) {
+                byte[] body = EntityUtils.toByteArray(response.getEntity());
+                if (response.getStatusLine().getStatusCode() == 200
+                        && local.getChecksum()
+                                .equals(header(response, SnapshotServer.BASE_CHECKSUM_HEADER))) {
+                    Snapshot updated =
+                            local.apply(
+                                    Long.parseLong(header(response, SnapshotServer.VERSION_HEADER)),
+                                    body);
+                    if (updated.getChecksum()
+                            .equals(header(response, SnapshotServer.CHECKSUM_HEADER))) {
+                        return updated;
+                    }
+                }
+            }
+        }
+
+        try (CloseableHttpResponse response = get("/snapshot")) {
+            byte[] body = EntityUtils.toByteArray(response.getEntity());
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new IOException(
+                        "Failed to fetch snapshot: HTTP "
+                                + response.getStatusLine().getStatusCode());
+            }
+            String expected = header(response, SnapshotServer.CHECKSUM_HEADER);
+            if (!Hash.sha256(body).equals(expected)) {
+                throw new IOException("Snapshot checksum mismatch, expected " + expected);
+            }
+            return Snapshot.parse(
+                    Long.parseLong(header(response, SnapshotServer.VERSION_HEADER)), body);
+        }
+    }
+
+    private CloseableHttpResponse get(String path) throws IOException {
+        return httpClient.execute(Config.Url.createHttpGet(primaryUrl + path));
+    }
+
+    private static String header(CloseableHttpResponse response, String name) throws IOException {
+        Header header = response.getFirstHeader(name);
+        if (header == null) {
+            throw new IOException("Missing response header " + name);
+        }
+        return header.getValue();
+    }
+}
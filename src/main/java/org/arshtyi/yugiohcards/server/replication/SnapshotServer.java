@@ -0,0 +1,147 @@
+package org.arshtyi.yugiohcards.server.replication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP endpoint of the primary. Serves the current snapshot and the delta from the previous
+ * version; both are published together through a single volatile reference so that readers always
+ * see a consistent pair.
+ *
+ * <ul>
+ *   <li>{@code GET /version} returns {@code <version>\t<checksum>}.
+ *   <li>{@code GET /snapshot} returns the snapshot wire format.
+ *   <li>{@code GET /delta?from=<version>} returns the delta from {@code version}, or 404 if that
+ *       base is not the immediately preceding version.
+ * </ul>
+ *
+ * Snapshot and delta responses carry the version and checksum headers below; a replica must check
+ * that the snapshot it ends up with matches {@link #CHECKSUM_HEADER}.
+ */
+class SnapshotServer {
+    static final String VERSION_HEADER = "X-Snapshot-Version";
+    static final String CHECKSUM_HEADER = "X-Snapshot-Checksum";
+    static final String BASE_VERSION_HEADER = "X-Base-Version";
+    static final String BASE_CHECKSUM_HEADER = "X-Base-Checksum";
+
+    /** A snapshot together with the delta that produced it, or a null delta for the first one. */
+    private record Published(Snapshot snapshot, Snapshot base, byte[] delta) {}
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Published published;
+
+    /**
+     * Creates the server bound to the given address and port. It does not serve requests until
+     * {@link #start()} is called.
+     *
+     * @param bindAddress The host name or IP address to listen on.
+     * @param port The TCP port to listen on.
+     * @throws IOException if the address cannot be bound.
+     */
+    SnapshotServer(String bindAddress, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        executor = Executors.newFixedThreadPool(4);
+        server.setExecutor(executor);
+        server.createContext("/version", this::handleVersion);
+        server.createContext("/snapshot", this::handleSnapshot);
+        server.createContext("/delta", this::handleDelta);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    /** Stops accepting requests and shuts down the handler threads so that the JVM can exit. */
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the currently published snapshot.
+     *
+     * @return The snapshot, or {@code null} if nothing was published yet.
+     */
+    Snapshot current() {
+        Published current = published;
+        return current == null ? null : current.snapshot();
+    }
+
+    /**
+     * Publishes a new snapshot, computing the delta from the previously published one.
+     *
+     * @param snapshot The new snapshot; its version must be greater than the current one.
+     */
+    synchronized void publish(Snapshot snapshot) {
+        Published previous = published;
+        if (previous == null) {
+            published = new Published(snapshot, null, null);
+        } else {
+            Snapshot base = previous.snapshot();
+            published = new Published(snapshot, base, snapshot.deltaFrom(base));
+        }
+    }
+
+    private void handleVersion(HttpExchange exchange) throws IOException {
+        Published current = published;
+        if (current == null) {
+            send(exchange, 503, "No snapshot published yet".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        Snapshot snapshot = current.snapshot();
+        String body = snapshot.getVersion() + "\t" + snapshot.getChecksum();
+        send(exchange, 200, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handleSnapshot(HttpExchange exchange) throws IOException {
+        Published current = published;
+        if (current == null) {
+            send(exchange, 503, "No snapshot published yet".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        setSnapshotHeaders(exchange, current.snapshot());
+        send(exchange, 200, current.snapshot().getBytes());
+    }
+
+    private void handleDelta(HttpExchange exchange) throws IOException {
+        Published current = published;
+        String query = exchange.getRequestURI().getQuery();
+        if (current == null
+                || current.base() == null
+                || query == null
+                || !query.equals("from=" + current.base().getVersion())) {
+            send(exchange, 404, "No delta for this base".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        setSnapshotHeaders(exchange, current.snapshot());
+        exchange.getResponseHeaders()
+                .set(BASE_VERSION_HEADER, Long.toString(current.base().getVersion()));
+        exchange.getResponseHeaders().set(BASE_CHECKSUM_HEADER, current.base().getChecksum());
+        send(exchange, 200, current.delta());
+    }
+
+    private static void setSnapshotHeaders(HttpExchange exchange, Snapshot snapshot) {
+        exchange.getResponseHeaders().set(VERSION_HEADER, Long.toString(snapshot.getVersion()));
+        exchange.getResponseHeaders().set(CHECKSUM_HEADER, snapshot.getChecksum());
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package org.arshtyi.yugiohcards.server.setindex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.arshtyi.yugiohcards.controller.output.Price;
+import org.arshtyi.yugiohcards.controller.output.VarInt;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Index of the {@code card_sets} entries of all cards. Sets are keyed by the prefix of their {@code
+ * set_code} (e.g. {@code LOB} for {@code LOB-EN001}) and map to a sorted array of card ids; each
+ * card maps to a contiguous run of compact entries (set index, rarity index, price in cents).
+ * Rarities are dictionary-encoded. The index is persisted as a small binary file next to {@code
+ * allcards.json} so that set queries never need to parse the JSON again.
+ */
+public class CardSetIndex {
+    private static final int MAGIC = 0x59475349; // "YGSI"
+    private static final byte VERSION = 1;
+
+    /** One printing of a card in a set. */
+    public record SetEntry(String setCode, String setName, String rarity, int priceCents) {}
+
+    private final String[] rarities;
+    private final String[] setCodes;
+    private final String[] setNames;
+    private final int[][] setCardIds;
+    private final int[] cardIds;
+    private final int[] entryStart;
+    private final int[] entrySet;
+    private final int[] entryRarity;
+    private final int[] entryPrice;
+    private final Map<String, Integer> setIndexByCode;
+    private final Map<String, Integer> rarityIndexByName;
+
+    private CardSetIndex(
+            String[] rarities,
+            String[] setCodes,
+            String[] setNames,
+            int[][] setCardIds,
+            int[] cardIds,
+            int[] entryStart,
+            int[] entrySet,
+            int[] entryRarity,
+            int[] entryPrice) {
+        this.rarities = rarities;
+        this.setCodes = setCodes;
+        this.setNames = setNames;
+        this.setCardIds = setCardIds;
+        this.cardIds = cardIds;
+        this.entryStart = entryStart;
+        this.entrySet = entrySet;
+        this.entryRarity = entryRarity;
+        this.entryPrice = entryPrice;
+        this.setIndexByCode = new HashMap<>(setCodes.length * 2);
+        for (int i = 0; i < setCodes.length; i++) {
+            setIndexByCode.put(setCodes[i], i);
+        }
+        this.rarityIndexByName = new HashMap<>(rarities.length * 2);
+        for (int i = 0; i < rarities.length; i++) {
+            rarityIndexByName.put(rarities[i], i);
+        }
+    }
+
+    /**
+     * Builds the index from a parsed API response.
+     *
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     * @return The built index.
+     */
+    public static CardSetIndex build(JSONObject root) {
+        JSONArray data = root.getJSONArray("data");
+        TreeMap<String, String> namesByCode = new TreeMap<>();
+        TreeSet<String> rarityNames = new TreeSet<>();
+        TreeMap<Integer, JSONArray> setsByCard = new TreeMap<>();
+        for (int i = 0; i < data.length(); i++) {
+            JSONObject card = data.getJSONObject(i);
+            JSONArray sets = card.optJSONArray("card_sets");
+            if (sets == null) {
+                continue;
+            }
+            setsByCard.putIfAbsent(card.getInt("id"), sets);
+            for (int j = 0; j < sets.length(); j++) {
+                JSONObject set = sets.getJSONObject(j);
+                namesByCode.putIfAbsent(
+                        toSetCode(set.optString("set_code", "")), set.optString("set_name", ""));
+                rarityNames.add(set.optString("set_rarity", ""));
+            }
+        }
+
+        String[] setCodes = namesByCode.keySet().toArray(new String[0]);
+        String[] setNames = namesByCode.values().toArray(new String[0]);
+        String[] rarities = rarityNames.toArray(new String[0]);
+        Map<String, Integer> setIndex = new HashMap<>();
+        for (int i = 0; i < setCodes.length; i++) {
+            setIndex.put(setCodes[i], i);
+        }
+        Map<String, Integer> rarityIndex = new HashMap<>();
+        for (int i = 0; i < rarities.length; i++) {
+            rarityIndex.put(rarities[i], i);
+        }
+
+        int[] cardIds = new int[setsByCard.size()];
+        int[] entryStart = new int[cardIds.length + 1];
+        List<int[]> entries = new ArrayList<>();
+        List<List<Integer>> members = new ArrayList<>();
+        for (int i = 0; i < setCodes.length; i++) {
+            members.add(new ArrayList<>());
+        }
+        int c = 0;
+        for (Map.Entry<Integer, JSONArray> card : setsByCard.entrySet()) {
+            cardIds[c] = card.getKey();
+            entryStart[c] = entries.size();
+            JSONArray sets = card.getValue();
+            for (int j = 0; j < sets.length(); j++) {
+                JSONObject set = sets.getJSONObject(j);
+                int s = setIndex.get(toSetCode(set.optString("set_code", "")));
+                List<Integer> setMembers = members.get(s);
+                if (setMembers.isEmpty() || setMembers.get(setMembers.size() - 1) != cardIds[c]) {
+                    setMembers.add(cardIds[c]);
+                }
+                entries.add(
+                        new int[] {
+                            s,
+                            rarityIndex.get(set.optString("set_rarity", "")),
+                            Price.toCents(set.optString("set_price", ""))
+                        });
+            }
+            c++;
+        }
+        entryStart[c] = entries.size();
+
+        int[][] setCardIds = new int[setCodes.length][];
+        for (int i = 0; i < setCodes.length; i++) {
+            setCardIds[i] = members.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        int[] entrySet = new int[entries.size()];
+        int[] entryRarity = new int[entries.size()];
+        int[] entryPrice = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            entrySet[i] = entries.get(i)[0];
+            entryRarity[i] = entries.get(i)[1];
+            entryPrice[i] = entries.get(i)[2];
+        }
+        return new CardSetIndex(
+                rarities,
+                setCodes,
+                setNames,
+                setCardIds,
+                cardIds,
+                entryStart,
+                entrySet,
+                entryRarity,
+                entryPrice);
+    }
+
+    /**
+     * Loads a previously saved index.
+     *
+     * @param file The index file written by {@link #save(Path)}.
+     * @return The loaded index.
+     * @throws IOException if the file cannot be read or is not a set index.
+     */
+    public static CardSetIndex load(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.getInt() != MAGIC || in.get() != VERSION) {
+            throw new IOException("Not a card set index: " + file);
+        }
+        String[] rarities = new String[(int) VarInt.readUnsigned(in)];
+        for (int i = 0; i < rarities.length; i++) {
+            rarities[i] = readString(in);
+        }
+        int setCount = (int) VarInt.readUnsigned(in);
+        String[] setCodes = new String[setCount];
+        String[] setNames = new String[setCount];
+        int[][] setCardIds = new int[setCount][];
+        for (int i = 0; i < setCount; i++) {
+            setCodes[i] = readString(in);
+            setNames[i] = readString(in);
+            setCardIds[i] = readSortedIds(in);
+        }
+        int[] cardIds = readSortedIds(in);
+        int[] entryStart = new int[cardIds.length + 1];
+        for (int i = 0; i < cardIds.length; i++) {
+            entryStart[i + 1] = entryStart[i] + (int) VarInt.readUnsigned(in);
+        }
+        int entryCount = entryStart[cardIds.length];
+        int[] entrySet = new int[entryCount];
+        int[] entryRarity = new int[entryCount];
+        int[] entryPrice = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            entrySet[i] = (int) VarInt.readUnsigned(in);
+            entryRarity[i] = (int) VarInt.readUnsigned(in);
+            entryPrice[i] = (int) VarInt.readUnsigned(in);
+        }
+        return new CardSetIndex(
+                rarities,
+                setCodes,
+                setNames,
+                setCardIds,
+                cardIds,
+                entryStart,
+                entrySet,
+                entryRarity,
+                entryPrice);
+    }
+
+    /**
+     * Writes the index to {@code file}, replacing any previous version atomically.
+     *
+     * @param file The destination file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1).putInt(MAGIC).put(VERSION);
+        out.write(header.array(), 0, header.capacity());
+        VarInt.writeUnsigned(out, rarities.length);
+        for (String rarity : rarities) {
+            writeString(out, rarity);
+        }
+        VarInt.writeUnsigned(out, setCodes.length);
+        for (int i = 0; i < setCodes.length; i++) {
+            writeString(out, setCodes[i]);
+            writeString(out, setNames[i]);
+            writeSortedIds(out, setCardIds[i]);
+        }
+        writeSortedIds(out, cardIds);
+        for (int i = 0; i < cardIds.length; i++) {
+            VarInt.writeUnsigned(out, entryStart[i + 1] - entryStart[i]);
+        }
+        for (int i = 0; i < entrySet.length; i++) {
+            VarInt.writeUnsigned(out, entrySet[i]);
+            VarInt.writeUnsigned(out, entryRarity[i]);
+            VarInt.writeUnsigned(out, entryPrice[i]);
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, out.toByteArray());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lists the cards printed in a set.
+     *
+     * @param setCode The set code prefix, e.g. {@code "LOB"}.
+     * @return The sorted card ids, or an empty array if the set is unknown.
+     */
+    public int[] cardsInSet(String setCode) {
+        Integer set = setIndexByCode.get(setCode);
+        return set == null ? new int[0] : setCardIds[set].clone();
+    }
+
+    /**
+     * Returns the name of a set.
+     *
+     * @param setCode The set code prefix.
+     * @return The set name, or {@code null} if the set is unknown.
+     */
+    public String getSetName(String setCode) {
+        Integer set = setIndexByCode.get(setCode);
+        return set == null ? null : setNames[set];
+    }
+
+    /**
+     * Lists every printing of a card.
+     *
+     * @param cardId The card id.
+     * @return The set entries of the card, empty if the card has none.
+     */
+    public List<SetEntry> setsOf(int cardId) {
+        return setsOf(cardId, -1);
+    }
+
+    /**
+     * Lists the printings of a card at a given rarity, e.g. {@code "Secret Rare"}.
+     *
+     * @param cardId The card id.
+     * @param rarity The exact {@code set_rarity} value.
+     * @return The matching set entries, empty if there are none.
+     */
+    public List<SetEntry> setsOf(int cardId, String rarity) {
+        Integer index = rarityIndexByName.get(rarity);
+        return index == null ? new ArrayList<>() : setsOf(cardId, index);
+    }
+
+    /**
+     * Returns all rarity names known to the index.
+     *
+     * @return The rarity dictionary, sorted alphabetically.
+     */
+    public String[] getRarities() {
+        return rarities.clone();
+    }
+
+    /**
+     * Returns all set codes known to the index.
+     *
+     * @return The set codes, sorted alphabetically.
+     */
+    public String[] getSetCodes() {
+        return setCodes.clone();
+    }
+
+    private List<SetEntry> setsOf(int cardId, int rarity) {
+        List<SetEntry> result = new ArrayList<>();
+        int card = Arrays.binarySearch(cardIds, cardId);
+        if (card < 0) {
+            return result;
+        }
+        for (int i = entryStart[card]; i < entryStart[card + 1]; i++) {
+            if (rarity < 0 || entryRarity[i] == rarity) {
+                int set = entrySet[i];
+                result.add(
+                        new SetEntry(
+                                setCodes[set],
+                                setNames[set],
+                                rarities[entryRarity[i]],
+                                entryPrice[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reduces a printing code such as {@code "LOB-EN001"} to its set code {@code "LOB"}.
+     *
+     * @param printCode The {@code set_code} value of a card set entry.
+     * @return The part before the first dash, or the whole code if it has none.
+     */
+    public static String toSetCode(String printCode) {
+        int dash = printCode.indexOf('-');
+        return dash < 0 ? printCode : printCode.substring(0, dash);
+    }
+
+    private static void writeSortedIds(ByteArrayOutputStream out, int[] ids) {
+        VarInt.writeUnsigned(out, ids.length);
+        int previous = 0;
+        for (int id : ids) {
+            VarInt.writeUnsigned(out, id - previous);
+            previous = id;
+        }
+    }
+
+    private static int[] readSortedIds(ByteBuffer in) {
+        int[] ids = new int[(int) VarInt.readUnsigned(in)];
+        int previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            previous += (int) VarInt.readUnsigned(in);
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        VarInt.writeUnsigned(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) VarInt.readUnsigned(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+package org.arshtyi.yugiohcards.server.setindex;
+
+import java.nio.file.Paths;
+
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.controller.log.Logger;
+import org.json.JSONObject;
+
+/** Builds and persists the card set index during ingestion. */
+public class Setindex {
+    private Setindex() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Builds the {@link CardSetIndex} from a freshly fetched card list and writes it next to {@code
+     * allcards.json}. Errors are logged and do not propagate.
+     *
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     */
+    public static void main(JSONObject root) {
+        String logFilePath = Config.Path.FilePath.getSetIndexLogFilePath();
+        String setIndexFilePath = Config.Path.FilePath.getSetIndexFilePath();
+        try {
+            CardSetIndex index = CardSetIndex.build(root);
+            index.save(Paths.get(setIndexFilePath));
+            Logger.log(
+                    "INFO",
+                    "Wrote set index with "
+                            + index.getSetCodes().length
+                            + " sets to file: "
+                            + setIndexFilePath,
+                    Setindex.class,
+                    logFilePath);
+        } catch (Exception e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to build set index: " + e.getMessage(),
+                    Setindex.class,
+                    logFilePath);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package org.arshtyi.yugiohcards.server.sqlexport;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.arshtyi.yugiohcards.controller.output.Hash;
+import org.arshtyi.yugiohcards.server.pricehistory.PriceSource;
+import org.arshtyi.yugiohcards.server.setindex.CardSetIndex;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Embedded H2 database holding the card list in normalized tables: {@code cards}, {@code sets},
+ * {@code card_sets}, {@code card_images}, {@code card_prices} and {@code banlist}. Each card row
+ * stores one hash of the card's JSON without its prices and one of its prices, so that a refresh
+ * only rewrites what changed: prices move on most refreshes, and a price-only change upserts the
+ * card's {@code card_prices} rows on {@code (card_id, source)} without touching the other child
+ * tables. The first load inserts everything with batched prepared statements in one transaction and
+ * creates the secondary indexes afterwards. Sets that no card is printed in any more are removed on
+ * every load.
+ */
+public class CardDatabase implements AutoCloseable {
+    /** Number of rows sent to the database per JDBC batch. */
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS cards (id INT PRIMARY KEY, name VARCHAR NOT NULL,"
+                + " type VARCHAR, frame_type VARCHAR, description VARCHAR, atk INT, def INT,"
+                + " level INT, race VARCHAR, attribute VARCHAR, archetype VARCHAR,"
+                + " content_hash CHAR(64) NOT NULL, price_hash CHAR(64))",
+        // Databases created before prices were hashed separately lack the column; their rows
+        // carry a null price hash, so the first load rewrites their prices once.
+        "ALTER TABLE cards ADD COLUMN IF NOT EXISTS price_hash CHAR(64)",
+        "CREATE TABLE IF NOT EXISTS sets (set_code VARCHAR PRIMARY KEY, set_name VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS card_sets (card_id INT NOT NULL, set_code VARCHAR NOT NULL,"
+                + " print_code VARCHAR, set_rarity VARCHAR, set_rarity_code VARCHAR,"
+                + " set_price DECIMAL(12, 2))",
+        "CREATE TABLE IF NOT EXISTS card_images (card_id INT NOT NULL, image_id INT NOT NULL,"
+                + " image_url VARCHAR, image_url_small VARCHAR, image_url_cropped VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS card_prices (card_id INT NOT NULL, source VARCHAR NOT NULL,"
+                + " price DECIMAL(12, 2), PRIMARY KEY (card_id, source))",
+        "CREATE TABLE IF NOT EXISTS banlist (card_id INT NOT NULL, format VARCHAR NOT NULL,"
+                + " status VARCHAR NOT NULL)"
+    };
+
+    private static final String[] INDEXES = {
+        "CREATE INDEX IF NOT EXISTS idx_cards_name ON cards (name)",
+        "CREATE INDEX IF NOT EXISTS idx_card_sets_card ON card_sets (card_id)",
+        "CREATE INDEX IF NOT EXISTS idx_card_sets_set ON card_sets (set_code)",
+        "CREATE INDEX IF NOT EXISTS idx_card_images_card ON card_images (card_id)",
+        "CREATE INDEX IF NOT EXISTS idx_card_prices_card ON card_prices (card_id)",
+        "CREATE INDEX IF NOT EXISTS idx_banlist_card ON banlist (card_id)"
+    };
+
+    /** Child tables derived from the static card data, i.e. everything except the prices. */
+    private static final String[] STATIC_CHILD_TABLES = {"card_sets", "card_images", "banlist"};
+
+    /** Banlist formats as reported in {@code banlist_info}, keyed by JSON key. */
+    private static final String[][] BANLIST_FORMATS = {
+        {"ban_tcg", "tcg"}, {"ban_ocg", "ocg"}, {"ban_goat", "goat"}
+    };
+
+    /**
+     * Card counts of one {@link #load(JSONObject)} call. {@code updated} counts cards whose data
+     * other than prices changed; {@code repriced} counts cards whose prices were the only change.
+     */
+    public record LoadResult(int inserted, int updated, int repriced, int deleted, int unchanged) {}
+
+    private final Connection connection;
+
+    /**
+     * Opens (or creates) the database at the given path.
+     *
+     * @param databasePath The database path without the {@code .mv.db} extension.
+     * @throws SQLException if the database cannot be opened or the schema cannot be created.
+     */
+    public CardDatabase(String databasePath) throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:" + databasePath);
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Brings the database in line with the given card list in a single transaction. New cards and
+     * cards whose data changed are upserted together with their child rows, cards whose prices
+     * changed get their {@code card_prices} rows upserted, cards no longer present are deleted, and
+     * unchanged cards are not touched.
+     *
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     * @return The number of inserted, updated, repriced, deleted and unchanged cards.
+     * @throws SQLException if any statement fails; the transaction is rolled back.
+     */
+    public LoadResult load(JSONObject root) throws SQLException {
+        try {
+            Map<Integer, String[]> existing = readHashes();
+            JSONArray data = root.getJSONArray("data");
+            List<JSONObject> changed = new ArrayList<>();
+            List<String[]> changedHashes = new ArrayList<>();
+            List<JSONObject> repriced = new ArrayList<>();
+            List<String> repricedOnlyHashes = new ArrayList<>();
+            List<Integer> repricedOnlyIds = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            int inserted = 0;
+            int unchanged = 0;
+            for (int i = 0; i < data.length(); i++) {
+                JSONObject card = data.getJSONObject(i);
+                int id = card.getInt("id");
+                if (!seen.add(id)) {
+                    continue;
+                }
+                String contentHash = contentHash(card);
+                String priceHash = priceHash(card);
+                String[] previous = existing.get(id);
+                boolean contentChanged = previous == null || !contentHash.equals(previous[0]);
+                boolean pricesChanged = previous == null || !priceHash.equals(previous[1]);
+                if (previous == null) {
+                    inserted++;
+                }
+                if (contentChanged) {
+                    changed.add(card);
+                    changedHashes.add(new String[] {contentHash, priceHash});
+                } else if (pricesChanged) {
+                    repricedOnlyIds.add(id);
+                    repricedOnlyHashes.add(priceHash);
+                } else {
+                    unchanged++;
+                }
+                if (pricesChanged) {
+                    repriced.add(card);
+                }
+            }
+            List<Integer> removed = new ArrayList<>();
+            for (Integer id : existing.keySet()) {
+                if (!seen.contains(id)) {
+                    removed.add(id);
+                }
+            }
+
+            boolean initialLoad = existing.isEmpty();
+            if (!initialLoad) {
+                List<Integer> stale = new ArrayList<>(removed);
+                for (JSONObject card : changed) {
+                    stale.add(card.getInt("id"));
+                }
+                for (String table : STATIC_CHILD_TABLES) {
+                    executeForIds("DELETE FROM " + table + " WHERE card_id = ?", stale);
+                }
+                executeForIds("DELETE FROM card_prices WHERE card_id = ?", removed);
+                executeForIds("DELETE FROM cards WHERE id = ?", removed);
+            }
+            writeCards(changed, changedHashes, initialLoad);
+            updatePriceHashes(repricedOnlyIds, repricedOnlyHashes);
+            writeChildren(changed);
+            writePrices(repriced, initialLoad);
+            // Building the indexes once after the bulk load is much cheaper than maintaining them
+            // row by row; on later loads they already exist and this is a no-op.
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : INDEXES) {
+                    statement.execute(ddl);
+                }
+                // Runs after the indexes exist so that the lookup into card_sets is indexed.
+                statement.executeUpdate(
+                        "DELETE FROM sets WHERE NOT EXISTS"
+                                + " (SELECT 1 FROM card_sets WHERE card_sets.set_code = sets.set_code)");
+            }
+            connection.commit();
+            return new LoadResult(
+                    inserted,
+                    changed.size() - inserted,
+                    repricedOnlyIds.size(),
+                    removed.size(),
+                    unchanged);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    /** Reads the content and price hash of every stored card, keyed by card id. */
+    private Map<Integer, String[]> readHashes() throws SQLException {
+        Map<Integer, String[]> hashes = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows =
+                        statement.executeQuery("SELECT id, content_hash, price_hash FROM cards")) {
+            while (rows.next()) {
+                hashes.put(rows.getInt(1), new String[] {rows.getString(2), rows.getString(3)});
+            }
+        }
+        return hashes;
+    }
+
+    /** Hashes everything of a card except its prices. */
+    private static String contentHash(JSONObject card) {
+        List<String> names = new ArrayList<>(card.keySet());
+        names.remove("card_prices");
+        return Hash.sha256(new JSONObject(card, names.toArray(new String[0])).toString());
+    }
+
+    private static String priceHash(JSONObject card) {
+        JSONArray prices = card.optJSONArray("card_prices");
+        return Hash.sha256(prices == null ? "" : prices.toString());
+    }
+
+    private void updatePriceHashes(List<Integer> cardIds, List<String> priceHashes)
+            throws SQLException {
+        try (PreparedStatement statement =
+                connection.prepareStatement("UPDATE cards SET price_hash = ? WHERE id = ?")) {
+            int pending = 0;
+            for (int i = 0; i < cardIds.size(); i++) {
+                statement.setString(1, priceHashes.get(i));
+                statement.setInt(2, cardIds.get(i));
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void executeForIds(String sql, List<Integer> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (int id : ids) {
+                statement.setInt(1, id);
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void writeCards(List<JSONObject> cards, List<String[]> hashes, boolean initialLoad)
+            throws SQLException {
+        String sql =
+                (initialLoad ? "INSERT INTO" : "MERGE INTO")
+                        + " cards (id, name, type, frame_type, description, atk, def, level, race,"
+                        + " attribute, archetype, content_hash, price_hash)"
+                        + (initialLoad ? "" : " KEY (id)")
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (int i = 0; i < cards.size(); i++) {
+                JSONObject card = cards.get(i);
+                statement.setInt(1, card.getInt("id"));
+                statement.setString(2, card.optString("name", ""));
+                statement.setString(3, optString(card, "type"));
+                statement.setString(4, optString(card, "frameType"));
+                statement.setString(5, optString(card, "desc"));
+                setOptionalInt(statement, 6, card, "atk");
+                setOptionalInt(statement, 7, card, "def");
+                setOptionalInt(statement, 8, card, "level");
+                statement.setString(9, optString(card, "race"));
+                statement.setString(10, optString(card, "attribute"));
+                statement.setString(11, optString(card, "archetype"));
+                statement.setString(12, hashes.get(i)[0]);
+                statement.setString(13, hashes.get(i)[1]);
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void writeChildren(List<JSONObject> cards) throws SQLException {
+        // Sets are shared between cards and outlive them until the orphan cleanup in load(), so
+        // they
+        // are always merged, even when the cards table starts out empty.
+        try (PreparedStatement sets =
+                        connection.prepareStatement(
+                                "MERGE INTO sets (set_code, set_name) KEY (set_code) VALUES (?, ?)");
+                PreparedStatement cardSets =
+                        connection.prepareStatement(
+                                "INSERT INTO card_sets (card_id, set_code, print_code, set_rarity,"
+                                        + " set_rarity_code, set_price) VALUES (?, ?, ?, ?, ?, ?)");
+                PreparedStatement images =
+                        connection.prepareStatement(
+                                "INSERT INTO card_images (card_id, image_id, image_url,"
+                                        + " image_url_small, image_url_cropped)"
+                                        + " VALUES (?, ?, ?, ?, ?)");
+                PreparedStatement banlist =
+                        connection.prepareStatement(
+                                "INSERT INTO banlist (card_id, format, status) VALUES (?, ?, ?)")) {
+            Set<String> seenSets = new HashSet<>();
+            int pending = 0;
+            for (JSONObject card : cards) {
+                int id = card.getInt("id");
+                JSONArray cardSetArray = card.optJSONArray("card_sets");
+                for (int i = 0; cardSetArray != null && i < cardSetArray.length(); i++) {
+                    JSONObject set = cardSetArray.getJSONObject(i);
+                    String printCode = set.optString("set_code", "");
+                    String setCode = CardSetIndex.toSetCode(printCode);
+                    if (seenSets.add(setCode)) {
+                        sets.setString(1, setCode);
+                        sets.setString(2, optString(set, "set_name"));
+                        sets.addBatch();
+                    }
+                    cardSets.setInt(1, id);
+                    cardSets.setString(2, setCode);
+                    cardSets.setString(3, printCode);
+                    cardSets.setString(4, optString(set, "set_rarity"));
+                    cardSets.setString(5, optString(set, "set_rarity_code"));
+                    cardSets.setBigDecimal(6, toDecimal(set.optString("set_price", "")));
+                    cardSets.addBatch();
+                }
+                JSONArray imageArray = card.optJSONArray("card_images");
+                for (int i = 0; imageArray != null && i < imageArray.length(); i++) {
+                    JSONObject image = imageArray.getJSONObject(i);
+                    images.setInt(1, id);
+                    images.setInt(2, image.optInt("id", id));
+                    images.setString(3, optString(image, "image_url"));
+                    images.setString(4, optString(image, "image_url_small"));
+                    images.setString(5, optString(image, "image_url_cropped"));
+                    images.addBatch();
+                }
+                JSONObject banlistInfo = card.optJSONObject("banlist_info");
+                for (String[] format : BANLIST_FORMATS) {
+                    if (banlistInfo == null || !banlistInfo.has(format[0])) {
+                        continue;
+                    }
+                    banlist.setInt(1, id);
+                    banlist.setString(2, format[1]);
+                    banlist.setString(3, banlistInfo.optString(format[0], ""));
+                    banlist.addBatch();
+                }
+                if (++pending == BATCH_SIZE) {
+                    executeBatches(sets, cardSets, images, banlist);
+                    pending = 0;
+                }
+            }
+            executeBatches(sets, cardSets, images, banlist);
+        }
+    }
+
+    /**
+     * Writes the {@code card_prices} rows of the given cards. After the initial load, prices are
+     * upserted on {@code (card_id, source)} and the rows of sources a card is no longer listed on
+     * are deleted.
+     */
+    private void writePrices(List<JSONObject> cards, boolean initialLoad) throws SQLException {
+        try (PreparedStatement upsert =
+                        connection.prepareStatement(
+                                (initialLoad ? "INSERT INTO" : "MERGE INTO")
+                                        + " card_prices (card_id, source, price)"
+                                        + (initialLoad ? "" : " KEY (card_id, source)")
+                                        + " VALUES (?, ?, ?)");
+                PreparedStatement delete =
+                        connection.prepareStatement(
+                                "DELETE FROM card_prices WHERE card_id = ? AND source = ?")) {
+            int pending = 0;
+            for (JSONObject card : cards) {
+                int id = card.getInt("id");
+                JSONArray priceArray = card.optJSONArray("card_prices");
+                JSONObject price =
+                        (priceArray == null || priceArray.length() == 0)
+                                ? null
+                                : priceArray.optJSONObject(0);
+                for (PriceSource source : PriceSource.values()) {
+                    String sourceName = source.name().toLowerCase(Locale.ROOT);
+                    if (price != null && price.has(source.getJsonKey())) {
+                        upsert.setInt(1, id);
+                        upsert.setString(2, sourceName);
+                        upsert.setBigDecimal(
+                                3, toDecimal(price.optString(source.getJsonKey(), "")));
+                        upsert.addBatch();
+                    } else if (!initialLoad) {
+                        delete.setInt(1, id);
+                        delete.setString(2, sourceName);
+                        delete.addBatch();
+                    }
+                }
+                if (++pending == BATCH_SIZE) {
+                    executeBatches(upsert, delete);
+                    pending = 0;
+                }
+            }
+            executeBatches(upsert, delete);
+        }
+    }
+
+    private static void executeBatches(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement statement : statements) {
+            statement.executeBatch();
+        }
+    }
+
+    private static String optString(JSONObject object, String key) {
+        return object.has(key) && !object.isNull(key) ? object.optString(key, null) : null;
+    }
+
+    private static void setOptionalInt(
+            PreparedStatement statement, int index, JSONObject card, String key)
+            throws SQLException {
+        if (card.has(key) && !card.isNull(key)) {
+            statement.setInt(index, card.optInt(key));
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static BigDecimal toDecimal(String value) {
+        try {
+            return value.isEmpty() ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
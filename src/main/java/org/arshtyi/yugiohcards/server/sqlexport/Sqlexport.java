@@ -0,0 +1,49 @@
+package org.arshtyi.yugiohcards.server.sqlexport;
+
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.controller.log.Logger;
+import org.json.JSONObject;
+
+/** Exports the fetched card data into the embedded SQL database. */
+public class Sqlexport {
+    private Sqlexport() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Loads a freshly fetched card list into the {@link CardDatabase}. The first run performs a
+     * full bulk load; later runs only upsert the cards that changed. Errors are logged and do not
+     * propagate.
+     *
+     * @param root The parsed API response, with the cards in its {@code data} array.
+     */
+    public static void main(JSONObject root) {
+        String logFilePath = Config.Path.FilePath.getSqlExportLogFilePath();
+        String databasePath = Config.Path.FilePath.getCardDatabasePath();
+        long start = System.nanoTime();
+        try (CardDatabase database = new CardDatabase(databasePath)) {
+            CardDatabase.LoadResult result = database.load(root);
+            Logger.log(
+                    "INFO",
+                    String.format(
+                            "Exported cards to %s in %d ms: %d inserted, %d updated,"
+                                    + " %d repriced, %d deleted, %d unchanged",
+                            databasePath,
+                            (System.nanoTime() - start) / 1_000_000,
+                            result.inserted(),
+                            result.updated(),
+                            result.repriced(),
+                            result.deleted(),
+                            result.unchanged()),
+                    Sqlexport.class,
+                    logFilePath);
+        } catch (Exception e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to export cards to SQL database: " + e.getMessage(),
+                    Sqlexport.class,
+                    logFilePath);
+        }
+    }
+}
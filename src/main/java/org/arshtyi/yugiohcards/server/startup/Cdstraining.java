@@ -0,0 +1,80 @@
+package org.arshtyi.yugiohcards.server.startup;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.server.setindex.CardSetIndex;
+import org.json.JSONObject;
+
+/**
+ * Training workload for the AppCDS archive built by the {@code appcds} Maven profile. Loads the
+ * classes used on the fetch path (paths, HTTP client, JSON parsing, indexing) and the thumbnail
+ * path (ImageIO decode/scale/encode) without touching the network, so that the archive can be
+ * produced during the build. The workload itself writes nothing, but like every launch it runs
+ * after the environment check, which creates the {@code resource/log} and {@code resource/output}
+ * directories under the application root ({@code target} during the build) and appends to {@code
+ * main.log}.
+ */
+public class Cdstraining {
+    private Cdstraining() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    private static final String SAMPLE =
+            "{\"data\":[{\"id\":89631139,\"name\":\"Blue-Eyes White Dragon\","
+                    + "\"type\":\"Normal Monster\",\"atk\":3000,\"def\":2500,\"level\":8,"
+                    + "\"card_sets\":[{\"set_name\":\"Legend of Blue Eyes White Dragon\","
+                    + "\"set_code\":\"LOB-EN001\",\"set_rarity\":\"Ultra Rare\","
+                    + "\"set_price\":\"120.50\"}],"
+                    + "\"card_prices\":[{\"cardmarket_price\":\"0.05\","
+                    + "\"tcgplayer_price\":\"0.17\"}]}]}";
+
+    /**
+     * Runs the training workload and prints a short summary.
+     *
+     * @throws IllegalStateException if the HTTP client cannot be created or closed.
+     */
+    public static void main() {
+        Config.Path.FilePath.getAllCardsJsonFilePath();
+        Config.Path.FilePath.getGetAllCardsLogFilePath();
+        Config.Path.FilePath.getPriceHistoryDirectoryPath();
+        Config.Path.FilePath.getSetIndexFilePath();
+        Config.Path.FilePath.getCardDatabasePath();
+        try {
+            // Creating and closing the client loads its classes; the training run sends nothing.
+            CloseableHttpClient httpClient = Config.Url.createHttpClient();
+            httpClient.close();
+            HttpGet httpGet = Config.Url.createHttpGet(Config.Url.getBaseUrl());
+            JSONObject root = new JSONObject(SAMPLE);
+            CardSetIndex index = CardSetIndex.build(root);
+            BufferedImage image = new BufferedImage(42, 61, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, 21, 30, null);
+            graphics.dispose();
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", encoded);
+            ImageIO.read(new ByteArrayInputStream(encoded.toByteArray()));
+            System.out.println(
+                    "CDS training run finished: "
+                            + httpGet.getMethod()
+                            + " "
+                            + root.getJSONArray("data").length()
+                            + " card(s), "
+                            + index.getSetCodes().length
+                            + " set(s)");
+        } catch (Exception e) {
+            throw new IllegalStateException("CDS training run failed", e);
+        }
+    }
+}
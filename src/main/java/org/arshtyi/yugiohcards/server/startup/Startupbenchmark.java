@@ -0,0 +1,152 @@
+package org.arshtyi.yugiohcards.server.startup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.arshtyi.yugiohcards.Yugiohcards;
+
+/**
+ * Measures the startup time of short CLI invocations. Launches the application jar repeatedly in
+ * fresh JVMs and reports the median time until the environment check passed ({@link
+ * Yugiohcards#ENVIRONMENT_READY_MESSAGE}, printed right before the selected stage runs) and until
+ * process exit. Each optimization is measured on its own against the default launch: the {@code
+ * --fast-start} flag, C1-only compilation ({@code -XX:TieredStopAtLevel=1}) and the AppCDS archive
+ * (if {@code yugiohcards.jsa} exists next to the jar), followed by all three combined.
+ *
+ * <p>Usage: {@code java -cp <jar> org.arshtyi.yugiohcards.server.startup.Startupbenchmark <jar>
+ * [runs] [application args...]}. The application arguments default to {@code cds-training}, which
+ * exercises the fetch path without network access.
+ */
+public class Startupbenchmark {
+    private Startupbenchmark() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    private static final String MAIN_CLASS = "org.arshtyi.yugiohcards.Yugiohcards";
+    private static final String ARCHIVE_FILE_NAME = "yugiohcards.jsa";
+    private static final String C1_ONLY_OPTION = "-XX:TieredStopAtLevel=1";
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The application jar, optionally followed by the number of runs per configuration
+     *     and the application arguments to launch with.
+     * @throws IOException if a process cannot be started.
+     * @throws InterruptedException if interrupted while waiting for a process.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: Startupbenchmark <application jar> [runs] [args...]");
+            return;
+        }
+        Path jar = Paths.get(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<String> appArgs =
+                args.length > 2
+                        ? Arrays.asList(args).subList(2, args.length)
+                        : List.of("cds-training");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Path archive = jar.toAbsolutePath().resolveSibling(ARCHIVE_FILE_NAME);
+
+        List<String> fastArgs = new ArrayList<>();
+        fastArgs.add("--fast-start");
+        fastArgs.addAll(appArgs);
+
+        System.out.printf(Locale.ROOT, "%-28s %12s %12s%n", "configuration", "ready ms", "exit ms");
+        report("default", runs, command(java, List.of(), jar, appArgs));
+        report("--fast-start", runs, command(java, List.of(), jar, fastArgs));
+        report("C1 only", runs, command(java, List.of(C1_ONLY_OPTION), jar, appArgs));
+        if (Files.exists(archive)) {
+            String archiveOption = "-XX:SharedArchiveFile=" + archive;
+            report("AppCDS", runs, command(java, List.of(archiveOption), jar, appArgs));
+            report(
+                    "--fast-start + C1 + AppCDS",
+                    runs,
+                    command(java, List.of(C1_ONLY_OPTION, archiveOption), jar, fastArgs));
+        } else {
+            System.out.println(
+                    "No AppCDS archive at " + archive + ", build it with 'mvn -Pappcds package'");
+        }
+    }
+
+    private static List<String> command(
+            String java, List<String> jvmOptions, Path jar, List<String> appArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(jar.toString());
+        command.add(MAIN_CLASS);
+        command.addAll(appArgs);
+        return command;
+    }
+
+    /** Runs one configuration once for warm-up and {@code runs} times measured. */
+    private static void report(String name, int runs, List<String> command)
+            throws IOException, InterruptedException {
+        launch(command);
+        long[] ready = new long[runs];
+        long[] exit = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] timings = launch(command);
+            ready[i] = timings[0];
+            exit[i] = timings[1];
+        }
+        System.out.printf(
+                Locale.ROOT,
+                "%-28s %12.1f %12.1f%n",
+                name,
+                median(ready) / 1e6,
+                median(exit) / 1e6);
+    }
+
+    /**
+     * Launches the command and returns the nanoseconds until it printed {@link
+     * Yugiohcards#ENVIRONMENT_READY_MESSAGE} and until it exited.
+     *
+     * @throws IllegalStateException if the application never reported a passed environment check.
+     */
+    private static long[] launch(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long ready = -1;
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader =
+                new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (ready < 0 && line.equals(Yugiohcards.ENVIRONMENT_READY_MESSAGE)) {
+                    ready = System.nanoTime() - start;
+                }
+                output.add(line);
+            }
+        }
+        process.waitFor();
+        long exit = System.nanoTime() - start;
+        if (ready < 0) {
+            throw new IllegalStateException(
+                    "Environment check did not pass for " + command + ": " + output);
+        }
+        return new long[] {ready, exit};
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1
+                ? sorted[middle]
+                : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+}
@@ -0,0 +1,354 @@
+package org.arshtyi.yugiohcards.server.thumbnails;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.arshtyi.yugiohcards.controller.config.Config;
+import org.arshtyi.yugiohcards.controller.log.Logger;
+import org.arshtyi.yugiohcards.controller.output.Hash;
+
+/**
+ * Produces the configured thumbnail variants of every card image in the image directory. Images are
+ * decoded with ImageIO on a bounded pool of {@link Config.Image#getThumbnailWorkerCount()} workers,
+ * and images whose SHA-256 matches the manifest of the previous run are skipped.
+ */
+public class Thumbnails {
+    private Thumbnails() {
+        // Prevent instantiation of utility class
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /** Bytes of decoded rasters currently alive across all workers. */
+    private static final AtomicLong rasterBytes = new AtomicLong();
+
+    /** Highest value {@link #rasterBytes} reached during the current run. */
+    private static final AtomicLong peakRasterBytes = new AtomicLong();
+
+    /**
+     * Main method of the thumbnail stage. Generates the missing or outdated thumbnails, writes the
+     * updated manifest, and logs throughput (images per second) and the peak memory used by decoded
+     * rasters so that the worker count can be sized against the heap.
+     */
+    public static void main() {
+        String logFilePath = Config.Path.FilePath.getThumbnailsLogFilePath();
+        Path imageDirectory = Paths.get(Config.Path.FilePath.getImageDirectoryPath());
+        Path thumbnailDirectory = Paths.get(Config.Path.FilePath.getThumbnailDirectoryPath());
+        Path manifestPath = Paths.get(Config.Path.FilePath.getThumbnailManifestFilePath());
+        int[] widths = Config.Image.getThumbnailWidths();
+        List<String> formats = new ArrayList<>();
+        for (String format : Config.Image.getThumbnailFormats()) {
+            if (ImageIO.getImageWritersByFormatName(format).hasNext()) {
+                formats.add(format);
+            } else {
+                Logger.log(
+                        "WARNING",
+                        "No ImageIO writer registered for format '" + format + "', skipping it",
+                        Thumbnails.class,
+                        logFilePath);
+            }
+        }
+
+        List<Path> images;
+        try (Stream<Path> stream = Files.list(imageDirectory)) {
+            images =
+                    rejectDuplicateBaseNames(
+                            stream.filter(Thumbnails::isImage).sorted().toList(), logFilePath);
+        } catch (IOException e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to list image directory " + imageDirectory + ": " + e.getMessage(),
+                    Thumbnails.class,
+                    logFilePath);
+            return;
+        }
+
+        Map<String, String> previous = readManifest(manifestPath, logFilePath);
+        Map<String, String> current = new ConcurrentHashMap<>();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong decodeNanos = new AtomicLong();
+        rasterBytes.set(0);
+        peakRasterBytes.set(0);
+
+        int workers = Config.Image.getThumbnailWorkerCount();
+        // Queued tasks hold only a path; an image is read and decoded when its task runs. When the
+        // queue is full, caller-runs makes the submitting thread run the task itself, so up to
+        // workers + 1 images are decoded at once, each with its source raster and one scaled
+        // variant alive. The peak raster figure logged below reflects that bound.
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(
+                        workers,
+                        workers,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(workers * 2),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+        long start = System.nanoTime();
+        for (Path image : images) {
+            executor.execute(
+                    () -> {
+                        String name = image.getFileName().toString();
+                        try {
+                            byte[] source = Files.readAllBytes(image);
+                            String hash = Hash.sha256(source);
+                            current.put(name, hash);
+                            if (hash.equals(previous.get(name))
+                                    && outputsExist(thumbnailDirectory, name, widths, formats)) {
+                                skipped.incrementAndGet();
+                                return;
+                            }
+                            long decodeStart = System.nanoTime();
+                            generate(source, thumbnailDirectory, name, widths, formats);
+                            decodeNanos.addAndGet(System.nanoTime() - decodeStart);
+                            processed.incrementAndGet();
+                        } catch (Exception e) {
+                            current.remove(name);
+                            failed.incrementAndGet();
+                            Logger.log(
+                                    "ERROR",
+                                    "Failed to process image " + image + ": " + e.getMessage(),
+                                    Thumbnails.class,
+                                    logFilePath);
+                        }
+                    });
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.log(
+                    "ERROR",
+                    "Interrupted while waiting for thumbnail workers",
+                    Thumbnails.class,
+                    logFilePath);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        writeManifest(manifestPath, current, logFilePath);
+        // Only decoded images count towards throughput; unchanged images are merely hashed and
+        // would inflate the figure used to size the pool.
+        int decoded = processed.get();
+        Logger.log(
+                "INFO",
+                String.format(
+                        Locale.ROOT,
+                        "Decoded %d images in %.2f s (%.1f decoded images/s, %.1f ms per image"
+                                + " per thread), skipped %d unchanged without decoding, %d failed"
+                                + " (%d workers plus the caller, peak raster memory %.1f MiB)",
+                        decoded,
+                        seconds,
+                        seconds > 0 ? decoded / seconds : 0.0,
+                        decoded > 0 ? decodeNanos.get() / 1e6 / decoded : 0.0,
+                        skipped.get(),
+                        failed.get(),
+                        workers,
+                        peakRasterBytes.get() / (1024.0 * 1024.0)),
+                Thumbnails.class,
+                logFilePath);
+    }
+
+    /**
+     * Decodes one source image and writes every width/format variant of it.
+     *
+     * @throws IOException if the image cannot be decoded or a variant cannot be written.
+     */
+    private static void generate(
+            byte[] source, Path thumbnailDirectory, String name, int[] widths, List<String> formats)
+            throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(source));
+        if (decoded == null) {
+            throw new IOException("Unsupported image format");
+        }
+        long decodedBytes = acquire(decoded);
+        try {
+            String baseName = stripExtension(name);
+            for (int width : widths) {
+                BufferedImage scaled = scale(decoded, width);
+                long scaledBytes = acquire(scaled);
+                try {
+                    Path variantDirectory = thumbnailDirectory.resolve(Integer.toString(width));
+                    Files.createDirectories(variantDirectory);
+                    for (String format : formats) {
+                        Path target = variantDirectory.resolve(baseName + "." + format);
+                        Path temp = variantDirectory.resolve(baseName + "." + format + ".tmp");
+                        if (!ImageIO.write(scaled, format, temp.toFile())) {
+                            throw new IOException("No writer accepted format " + format);
+                        }
+                        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    rasterBytes.addAndGet(-scaledBytes);
+                }
+            }
+        } finally {
+            rasterBytes.addAndGet(-decodedBytes);
+        }
+    }
+
+    /** Scales an image to the given width, keeping its aspect ratio. */
+    private static BufferedImage scale(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        int type =
+                image.getColorModel().hasAlpha()
+                        ? BufferedImage.TYPE_INT_ARGB
+                        : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /** Adds the raster size of an image to the live total and updates the peak. */
+    private static long acquire(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        long bytes =
+                (long) buffer.getSize()
+                        * buffer.getNumBanks()
+                        * DataBuffer.getDataTypeSize(buffer.getDataType())
+                        / 8;
+        peakRasterBytes.accumulateAndGet(rasterBytes.addAndGet(bytes), Math::max);
+        return bytes;
+    }
+
+    private static boolean outputsExist(
+            Path thumbnailDirectory, String name, int[] widths, List<String> formats) {
+        String baseName = stripExtension(name);
+        for (int width : widths) {
+            for (String format : formats) {
+                Path target =
+                        thumbnailDirectory
+                                .resolve(Integer.toString(width))
+                                .resolve(baseName + "." + format);
+                if (!Files.exists(target)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps only the first image of each base name. Thumbnails are named after the base name, so
+     * e.g. {@code 123.jpg} and {@code 123.png} would write the same {@code 123.png} variant (and
+     * temp file) from two workers at once.
+     *
+     * @param images The source images, sorted by file name.
+     * @return The images with unique base names, in the same order.
+     */
+    private static List<Path> rejectDuplicateBaseNames(List<Path> images, String logFilePath) {
+        Map<String, Path> byBaseName = new LinkedHashMap<>();
+        for (Path image : images) {
+            Path kept =
+                    byBaseName.putIfAbsent(stripExtension(image.getFileName().toString()), image);
+            if (kept != null) {
+                Logger.log(
+                        "WARNING",
+                        "Skipping image "
+                                + image
+                                + ": its thumbnails would overwrite those of "
+                                + kept.getFileName(),
+                        Thumbnails.class,
+                        logFilePath);
+            }
+        }
+        return new ArrayList<>(byBaseName.values());
+    }
+
+    private static boolean isImage(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return Files.isRegularFile(path)
+                && (name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png"));
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    /**
+     * Reads the manifest of the previous run. Each line holds a file name and its SHA-256,
+     * separated by a tab.
+     */
+    private static Map<String, String> readManifest(Path manifestPath, String logFilePath) {
+        Map<String, String> manifest = new TreeMap<>();
+        if (!Files.exists(manifestPath)) {
+            return manifest;
+        }
+        try {
+            for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    manifest.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+        } catch (IOException e) {
+            Logger.log(
+                    "WARNING",
+                    "Failed to read thumbnail manifest, regenerating all images: " + e.getMessage(),
+                    Thumbnails.class,
+                    logFilePath);
+            manifest.clear();
+        }
+        return manifest;
+    }
+
+    private static void writeManifest(
+            Path manifestPath, Map<String, String> manifest, String logFilePath) {
+        StringBuilder content = new StringBuilder();
+        new TreeMap<>(manifest)
+                .forEach(
+                        (name, hash) ->
+                                content.append(name).append('\t').append(hash).append('\n'));
+        try {
+            Files.createDirectories(manifestPath.getParent());
+            Path temp = manifestPath.resolveSibling(manifestPath.getFileName() + ".tmp");
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(
+                    temp,
+                    manifestPath,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.log(
+                    "ERROR",
+                    "Failed to write thumbnail manifest: " + e.getMessage(),
+                    Thumbnails.class,
+                    logFilePath);
+        }
+    }
+}
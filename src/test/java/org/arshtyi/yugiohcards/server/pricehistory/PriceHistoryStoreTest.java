@@ -0,0 +1,71 @@
+package org.arshtyi.yugiohcards.server.pricehistory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PriceHistoryStoreTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final long START = 1_745_625_600L;
+    private static final long INTERVAL = 6 * 60 * 60;
+
+    /** Card 2 is listed on even refreshes only; card 3 appears after the first segment. */
+    private static int price(int cardId, PriceSource source, int refresh) {
+        if (cardId == 2 && refresh % 2 == 1) {
+            return 0;
+        }
+        return cardId * 1_000 + source.ordinal() * 100 + (refresh * 37) % 251;
+    }
+
+    private static PriceHistoryStore.Snapshot snapshot(int refresh) {
+        int[] ids =
+                refresh < PriceHistoryStore.SEGMENT_CAPACITY
+                        ? new int[] {1, 2}
+                        : new int[] {1, 2, 3};
+        int[][] prices = new int[PriceSource.values().length][ids.length];
+        for (PriceSource source : PriceSource.values()) {
+            for (int c = 0; c < ids.length; c++) {
+                prices[source.ordinal()][c] = price(ids[c], source, refresh);
+            }
+        }
+        return new PriceHistoryStore.Snapshot(ids, prices);
+    }
+
+    @Test
+    public void rangeReturnsEveryAppendedPriceAcrossSegments() throws IOException {
+        PriceHistoryStore store = new PriceHistoryStore(folder.getRoot().toPath().resolve("ph"));
+        int refreshes = PriceHistoryStore.SEGMENT_CAPACITY + 10;
+        for (int r = 0; r < refreshes; r++) {
+            store.append(START + r * INTERVAL, snapshot(r));
+        }
+        long end = START + refreshes * INTERVAL;
+
+        for (PriceSource source : PriceSource.values()) {
+            for (int cardId = 1; cardId <= 3; cardId++) {
+                List<PriceHistoryStore.PricePoint> expected = new ArrayList<>();
+                for (int r = 0; r < refreshes; r++) {
+                    boolean listed = cardId != 3 || r >= PriceHistoryStore.SEGMENT_CAPACITY;
+                    int cents = price(cardId, source, r);
+                    if (listed && cents != 0) {
+                        expected.add(new PriceHistoryStore.PricePoint(START + r * INTERVAL, cents));
+                    }
+                }
+                assertEquals(expected, store.range(cardId, source, START, end));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void appendRejectsTimestampsThatDoNotIncrease() throws IOException {
+        PriceHistoryStore store = new PriceHistoryStore(folder.getRoot().toPath());
+        store.append(START, snapshot(0));
+        store.append(START, snapshot(1));
+    }
+}
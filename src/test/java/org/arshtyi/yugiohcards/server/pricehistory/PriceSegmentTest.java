@@ -0,0 +1,104 @@
+package org.arshtyi.yugiohcards.server.pricehistory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PriceSegmentTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Irregular intervals give positive, negative and zero delta-of-deltas. */
+    private static final long[] TIMESTAMPS = {
+        1_745_625_600L,
+        1_745_647_200L,
+        1_745_668_800L,
+        1_745_668_801L,
+        1_745_900_000L,
+        1_746_000_000L
+    };
+
+    /** Large gaps between ids need multi-byte varints. */
+    private static final int[] CARD_IDS = {4_007, 4_008, 89_631_139, 99_999_999};
+
+    private static int[][] samplePrices() {
+        int refreshes = TIMESTAMPS.length;
+        int[][] prices = new int[PriceSource.values().length][CARD_IDS.length * refreshes];
+        for (int s = 0; s < prices.length; s++) {
+            for (int c = 0; c < CARD_IDS.length; c++) {
+                for (int r = 0; r < refreshes; r++) {
+                    // Rising, falling and unlisted (0) prices, plus one jump above a varint byte.
+                    int price = (r % 3 == 2) ? 0 : 50 * (s + 1) + (c * 7 - r * 13) * (r + 1);
+                    prices[s][c * refreshes + r] = Math.max(0, price) + (r == 4 ? 1_000_000 : 0);
+                }
+            }
+        }
+        return prices;
+    }
+
+    @Test
+    public void roundTripsHeapAndMappedSegments() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("segment-000000.ph");
+        int[][] prices = samplePrices();
+        PriceSegment.write(file, TIMESTAMPS, CARD_IDS, prices);
+
+        for (boolean mapped : new boolean[] {false, true}) {
+            PriceSegment segment = PriceSegment.open(file, mapped);
+            assertArrayEquals(TIMESTAMPS, segment.getTimestamps());
+            assertArrayEquals(CARD_IDS, segment.getCardIds());
+            for (PriceSource source : PriceSource.values()) {
+                int[] column = prices[source.ordinal()];
+                assertArrayEquals(column, segment.decodeColumn(source));
+                for (int c = 0; c < CARD_IDS.length; c++) {
+                    int[] expected = new int[TIMESTAMPS.length];
+                    System.arraycopy(column, c * TIMESTAMPS.length, expected, 0, expected.length);
+                    assertArrayEquals(expected, segment.decodeCard(source, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsEmptyAndSingleRefreshSegments() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("segment.ph");
+        int sources = PriceSource.values().length;
+
+        PriceSegment.write(file, new long[0], new int[0], new int[sources][0]);
+        PriceSegment empty = PriceSegment.open(file, false);
+        assertEquals(0, empty.getTimestamps().length);
+        assertEquals(0, empty.getCardIds().length);
+
+        int[][] prices = new int[sources][];
+        for (int s = 0; s < sources; s++) {
+            prices[s] = new int[] {s * 100};
+        }
+        PriceSegment.write(file, new long[] {1_745_625_600L}, new int[] {42}, prices);
+        PriceSegment single = PriceSegment.open(file, true);
+        assertArrayEquals(new long[] {1_745_625_600L}, single.getTimestamps());
+        assertEquals(0, single.indexOf(42));
+        assertTrue(single.indexOf(41) < 0);
+        for (PriceSource source : PriceSource.values()) {
+            assertArrayEquals(prices[source.ordinal()], single.decodeCard(source, 0));
+        }
+    }
+
+    @Test
+    public void rejectsFilesWithoutTheSegmentHeader() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("bogus.ph");
+        Files.write(file, new byte[] {'Y', 'G', 'S', 'I', 1, 0, 0});
+        try {
+            PriceSegment.open(file, false);
+            fail("Expected the segment header to be rejected");
+        } catch (IOException expected) {
+            // The magic belongs to the set index, not to a price history segment.
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.arshtyi.yugiohcards.server.setindex;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CardSetIndexTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private static JSONObject set(String code, String name, String rarity, String price) {
+        return new JSONObject()
+                .put("set_code", code)
+                .put("set_name", name)
+                .put("set_rarity", rarity)
+                .put("set_price", price);
+    }
+
+    private static JSONObject card(int id, JSONObject... sets) {
+        JSONObject card = new JSONObject().put("id", id);
+        if (sets.length > 0) {
+            card.put("card_sets", new JSONArray(sets));
+        }
+        return card;
+    }
+
+    /** Ids far apart and a large price exercise multi-byte varints in the id and entry tables. */
+    private static JSONObject sampleRoot() {
+        String lob = "Legend of Blue Eyes";
+        String sdk = "Starter Deck: Kaiba";
+        JSONArray data = new JSONArray();
+        data.put(
+                card(
+                        89_631_139,
+                        set("LOB-EN001", lob, "Ultra Rare", "120.50"),
+                        set("SDK-001", sdk, "Common", "1.99"),
+                        set("LOB-E001", lob, "Secret Rare", "")));
+        data.put(card(4_007, set("SDK-002", sdk, "Common", "0.25")));
+        data.put(card(55_144_522));
+        data.put(card(99_999_999, set("LOB-EN124", lob, "Ultra Rare", "99999.99")));
+        return new JSONObject().put("data", data);
+    }
+
+    private static void assertSameIndex(CardSetIndex expected, CardSetIndex actual) {
+        assertArrayEquals(expected.getSetCodes(), actual.getSetCodes());
+        assertArrayEquals(expected.getRarities(), actual.getRarities());
+        for (String setCode : expected.getSetCodes()) {
+            assertEquals(expected.getSetName(setCode), actual.getSetName(setCode));
+            assertArrayEquals(expected.cardsInSet(setCode), actual.cardsInSet(setCode));
+        }
+        for (int cardId : new int[] {4_007, 55_144_522, 89_631_139, 99_999_999, 1}) {
+            assertEquals(expected.setsOf(cardId), actual.setsOf(cardId));
+        }
+    }
+
+    @Test
+    public void buildIndexesSetsAndRarities() {
+        CardSetIndex index = CardSetIndex.build(sampleRoot());
+
+        assertArrayEquals(new String[] {"LOB", "SDK"}, index.getSetCodes());
+        assertArrayEquals(
+                new String[] {"Common", "Secret Rare", "Ultra Rare"}, index.getRarities());
+        assertArrayEquals(new int[] {89_631_139, 99_999_999}, index.cardsInSet("LOB"));
+        assertArrayEquals(new int[] {4_007, 89_631_139}, index.cardsInSet("SDK"));
+        assertEquals("Starter Deck: Kaiba", index.getSetName("SDK"));
+        assertNull(index.getSetName("MRD"));
+        assertEquals(0, index.cardsInSet("MRD").length);
+
+        assertEquals(
+                List.of(
+                        new CardSetIndex.SetEntry(
+                                "LOB", "Legend of Blue Eyes", "Ultra Rare", 12_050),
+                        new CardSetIndex.SetEntry("SDK", "Starter Deck: Kaiba", "Common", 199),
+                        new CardSetIndex.SetEntry("LOB", "Legend of Blue Eyes", "Secret Rare", 0)),
+                index.setsOf(89_631_139));
+        assertEquals(
+                List.of(new CardSetIndex.SetEntry("LOB", "Legend of Blue Eyes", "Secret Rare", 0)),
+                index.setsOf(89_631_139, "Secret Rare"));
+        assertTrue(index.setsOf(55_144_522).isEmpty());
+        assertTrue(index.setsOf(4_007, "Ghost Rare").isEmpty());
+    }
+
+    @Test
+    public void saveAndLoadRoundTrip() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("setindex.bin");
+        CardSetIndex built = CardSetIndex.build(sampleRoot());
+        built.save(file);
+
+        assertSameIndex(built, CardSetIndex.load(file));
+    }
+
+    @Test
+    public void saveAndLoadRoundTripEmptyIndex() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("setindex.bin");
+        CardSetIndex built = CardSetIndex.build(new JSONObject().put("data", new JSONArray()));
+        built.save(file);
+
+        CardSetIndex loaded = CardSetIndex.load(file);
+        assertEquals(0, loaded.getSetCodes().length);
+        assertEquals(0, loaded.getRarities().length);
+        assertSameIndex(built, loaded);
+    }
+
+    @Test(expected = IOException.class)
+    public void loadRejectsFilesWithoutTheIndexHeader() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("setindex.bin");
+        Files.write(file, new byte[] {'Y', 'G', 'P', 'H', 1, 0});
+        CardSetIndex.load(file);
+    }
+}
@@ -0,0 +1,186 @@
+package org.arshtyi.yugiohcards.server.sqlexport;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CardDatabaseTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private String databasePath;
+    private CardDatabase database;
+
+    @Before
+    public void open() throws SQLException {
+        databasePath = folder.getRoot().toPath().resolve("cards").toString();
+        database = new CardDatabase(databasePath);
+    }
+
+    @After
+    public void close() throws SQLException {
+        database.close();
+    }
+
+    private static JSONObject card(int id, String setCode, String setName, JSONObject prices) {
+        JSONObject card =
+                new JSONObject()
+                        .put("id", id)
+                        .put("name", "Card " + id)
+                        .put("type", "Normal Monster")
+                        .put("atk", 1_000 + id)
+                        .put(
+                                "card_sets",
+                                new JSONArray()
+                                        .put(
+                                                new JSONObject()
+                                                        .put("set_code", setCode + "-EN" + id)
+                                                        .put("set_name", setName)
+                                                        .put("set_rarity", "Common")
+                                                        .put("set_price", "1.00")))
+                        .put("card_images", new JSONArray().put(new JSONObject().put("id", id)))
+                        .put(
+                                "banlist_info",
+                                new JSONObject()
+                                        .put("ban_tcg", "Limited")
+                                        .put("ban_ocg", "Banned"));
+        if (prices != null) {
+            card.put("card_prices", new JSONArray().put(prices));
+        }
+        return card;
+    }
+
+    private static JSONObject prices(String cardmarket, String tcgplayer) {
+        JSONObject prices = new JSONObject().put("cardmarket_price", cardmarket);
+        if (tcgplayer != null) {
+            prices.put("tcgplayer_price", tcgplayer);
+        }
+        return prices;
+    }
+
+    private static JSONObject root(JSONObject... cards) {
+        return new JSONObject().put("data", new JSONArray(cards));
+    }
+
+    private static void assertResult(
+            int inserted,
+            int updated,
+            int repriced,
+            int deleted,
+            int unchanged,
+            CardDatabase.LoadResult result) {
+        assertEquals(
+                new CardDatabase.LoadResult(inserted, updated, repriced, deleted, unchanged),
+                result);
+    }
+
+    /** Runs a query on a second connection and returns the first column of every row. */
+    private List<Object> query(String sql) throws SQLException {
+        List<Object> values = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:" + databasePath);
+                Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                values.add(rows.getObject(1));
+            }
+        }
+        return values;
+    }
+
+    /** Row ids of every child row except prices; they change whenever a row is rewritten. */
+    private List<Object> staticChildRowIds() throws SQLException {
+        List<Object> rowIds = new ArrayList<>();
+        for (String table : new String[] {"card_sets", "card_images", "banlist"}) {
+            rowIds.addAll(query("SELECT _ROWID_ FROM " + table + " ORDER BY _ROWID_"));
+        }
+        return rowIds;
+    }
+
+    @Test
+    public void reloadAppliesOnlyTheChanges() throws SQLException {
+        assertResult(
+                2,
+                0,
+                0,
+                0,
+                0,
+                database.load(
+                        root(
+                                card(1, "LOB", "Legend of Blue Eyes", prices("1.10", "2.20")),
+                                card(2, "MRD", "Metal Raiders", prices("3.30", null)))));
+        assertEquals(List.of(3L), query("SELECT COUNT(*) FROM card_prices"));
+
+        assertResult(
+                0,
+                0,
+                0,
+                0,
+                2,
+                database.load(
+                        root(
+                                card(1, "LOB", "Legend of Blue Eyes", prices("1.10", "2.20")),
+                                card(2, "MRD", "Metal Raiders", prices("3.30", null)))));
+
+        List<Object> rowIds = staticChildRowIds();
+        assertResult(
+                0,
+                0,
+                1,
+                0,
+                1,
+                database.load(
+                        root(
+                                card(1, "LOB", "Legend of Blue Eyes", prices("1.50", null)),
+                                card(2, "MRD", "Metal Raiders", prices("3.30", null)))));
+        assertEquals(rowIds, staticChildRowIds());
+        assertEquals(
+                List.of(new BigDecimal("1.50")),
+                query("SELECT price FROM card_prices WHERE card_id = 1"));
+
+        assertResult(
+                0,
+                1,
+                0,
+                1,
+                0,
+                database.load(root(card(1, "SDK", "Starter Deck: Kaiba", prices("1.50", null)))));
+        assertEquals(List.of("SDK"), query("SELECT set_code FROM sets"));
+        assertEquals(List.of(1L), query("SELECT COUNT(*) FROM card_sets"));
+        assertEquals(List.of(1L), query("SELECT COUNT(*) FROM card_prices"));
+    }
+
+    @Test
+    public void reloadAfterAnEmptyCardList() throws SQLException {
+        JSONObject cards =
+                root(
+                        card(1, "LOB", "Legend of Blue Eyes", prices("1.10", "2.20")),
+                        card(2, "LOB", "Legend of Blue Eyes", null));
+        assertResult(2, 0, 0, 0, 0, database.load(cards));
+
+        assertResult(0, 0, 0, 2, 0, database.load(root()));
+        for (String table :
+                new String[] {
+                    "cards", "sets", "card_sets", "card_images", "card_prices", "banlist"
+                }) {
+            assertEquals(List.of(0L), query("SELECT COUNT(*) FROM " + table));
+        }
+
+        assertResult(2, 0, 0, 0, 0, database.load(cards));
+        assertEquals(List.of("LOB"), query("SELECT set_code FROM sets"));
+        assertEquals(List.of(2L), query("SELECT COUNT(*) FROM card_prices"));
+    }
+}